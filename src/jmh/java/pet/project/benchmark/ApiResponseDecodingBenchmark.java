@@ -0,0 +1,75 @@
+package pet.project.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.api.WeatherApiResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Decodes the payloads the same way WeatherApiService does, with shared readers and a stream body,
+// bytes allocated per call are reported by the gc profiler of the benchmark profile
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseDecodingBenchmark {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader WEATHER_READER = OBJECT_MAPPER.readerFor(WeatherApiResponse.class);
+    private static final ObjectReader FORECAST_READER = OBJECT_MAPPER.readerFor(ForecastApiResponse.class);
+
+    private byte[] weatherPayload;
+    private byte[] forecastPayload;
+    private byte[] gzippedForecastPayload;
+
+    @Setup
+    public void setUp() {
+        weatherPayload = RecordedPayloads.load("weather.json");
+        forecastPayload = RecordedPayloads.load("forecast.json");
+        gzippedForecastPayload = gzip(forecastPayload);
+    }
+
+    @Benchmark
+    public WeatherApiResponse decodeWeather() throws IOException {
+        return WEATHER_READER.readValue(new ByteArrayInputStream(weatherPayload));
+    }
+
+    @Benchmark
+    public ForecastApiResponse decodeForecast() throws IOException {
+        return FORECAST_READER.readValue(new ByteArrayInputStream(forecastPayload));
+    }
+
+    @Benchmark
+    public ForecastApiResponse decodeGzippedForecast() throws IOException {
+        try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(gzippedForecastPayload))) {
+            return FORECAST_READER.readValue(body);
+        }
+    }
+
+    // Former way: the whole body is copied into a String before decoding
+    @Benchmark
+    public ForecastApiResponse decodeForecastFromString() throws IOException {
+        return OBJECT_MAPPER.readValue(new String(forecastPayload, StandardCharsets.UTF_8), ForecastApiResponse.class);
+    }
+
+    private static byte[] gzip(byte[] payload) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+}
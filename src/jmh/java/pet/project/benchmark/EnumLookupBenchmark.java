@@ -0,0 +1,51 @@
+package pet.project.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.dto.enums.TimeOfDay;
+import pet.project.model.dto.enums.WeatherCondition;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+// Lookups over every slot of the recorded forecast, the same amount of work as one forecast page
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumLookupBenchmark {
+    private Integer[] weatherCodes;
+    private LocalDateTime[] times;
+
+    @Setup
+    public void setUp() {
+        ForecastApiResponse forecast = RecordedPayloads.forecast();
+
+        weatherCodes = new Integer[forecast.size()];
+        times = new LocalDateTime[forecast.size()];
+
+        for (int slot = 0; slot < forecast.size(); slot++) {
+            weatherCodes[slot] = (int) forecast.getWeatherCode(slot);
+            times[slot] = LocalDateTime.ofInstant(Instant.ofEpochSecond(forecast.getTimestamp(slot)), ZoneId.systemDefault());
+        }
+    }
+
+    @Benchmark
+    public void weatherConditionForCode(Blackhole blackhole) {
+        for (Integer weatherCode : weatherCodes) {
+            blackhole.consume(WeatherCondition.getWeatherConditionForCode(weatherCode));
+        }
+    }
+
+    @Benchmark
+    public void timeOfDayForTime(Blackhole blackhole) {
+        for (LocalDateTime time : times) {
+            blackhole.consume(TimeOfDay.getTimeOfDayForTime(time));
+        }
+    }
+}
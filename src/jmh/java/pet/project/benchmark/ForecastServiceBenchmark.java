@@ -0,0 +1,35 @@
+package pet.project.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.dto.WeatherDto;
+import pet.project.service.ForecastService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForecastServiceBenchmark {
+    private final ForecastService forecastService = new ForecastService();
+    private ForecastApiResponse forecast;
+
+    @Setup
+    public void setUp() {
+        forecast = RecordedPayloads.forecast();
+    }
+
+    @Benchmark
+    public List<WeatherDto> dailyForecast() {
+        return forecastService.getDailyForecast(forecast);
+    }
+
+    @Benchmark
+    public List<WeatherDto> hourlyForecast() {
+        return forecastService.getHourlyForecast(forecast);
+    }
+}
@@ -0,0 +1,114 @@
+package pet.project.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import pet.project.dao.LocationDao;
+import pet.project.model.Location;
+import pet.project.model.User;
+import pet.project.util.PersistenceUtil;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Needs the database of JAKARTA_PERSISTENCE_JDBC_URL with the schema in place, e.g. HIBERNATE_DDL_AUTO=update
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationSubscriptionBenchmark {
+    @Param({"100", "10000", "50000"})
+    private int subscriberCount;
+
+    private final LocationDao locationDao = new LocationDao();
+
+    private String loginPrefix;
+    private Long locationId;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        loginPrefix = "benchmark-" + UUID.randomUUID() + "-";
+
+        PersistenceUtil.inUnitOfWork(() -> {
+            EntityManager entityManager = PersistenceUtil.getEntityManager();
+            entityManager.getTransaction().begin();
+
+            Location location = new Location(loginPrefix + "location", List.of(), Math.random() * 90, Math.random() * 180);
+            entityManager.persist(location);
+            User user = new User(loginPrefix + "user", "password");
+            entityManager.persist(user);
+            entityManager.flush();
+
+            entityManager.createNativeQuery("INSERT INTO users (id, login, password) " +
+                            "SELECT nextval('users_seq'), :loginPrefix || n, 'password' " +
+                            "FROM generate_series(1, :subscriberCount) AS n")
+                    .setParameter("loginPrefix", loginPrefix)
+                    .setParameter("subscriberCount", subscriberCount)
+                    .executeUpdate();
+            entityManager.createNativeQuery("INSERT INTO " + Location.SUBSCRIPTIONS_TABLE + " (location_id, users_id) " +
+                            "SELECT :locationId, id FROM users WHERE login LIKE :loginPrefix || '%' AND id <> :userId")
+                    .setParameter("locationId", location.getId())
+                    .setParameter("loginPrefix", loginPrefix)
+                    .setParameter("userId", user.getId())
+                    .executeUpdate();
+
+            entityManager.getTransaction().commit();
+
+            locationId = location.getId();
+            userId = user.getId();
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        PersistenceUtil.inUnitOfWork(() -> {
+            EntityManager entityManager = PersistenceUtil.getEntityManager();
+            entityManager.getTransaction().begin();
+
+            entityManager.createNativeQuery("DELETE FROM " + Location.SUBSCRIPTIONS_TABLE + " WHERE location_id = :locationId")
+                    .setParameter("locationId", locationId)
+                    .executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM users WHERE login LIKE :loginPrefix || '%'")
+                    .setParameter("loginPrefix", loginPrefix)
+                    .executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM locations WHERE id = :locationId")
+                    .setParameter("locationId", locationId)
+                    .executeUpdate();
+
+            entityManager.getTransaction().commit();
+        });
+    }
+
+    // One row in and one row out, whatever the number of the other subscribers
+    @Benchmark
+    public boolean subscribeAndUnsubscribe() {
+        return PersistenceUtil.inUnitOfWork(() -> locationDao.subscribe(locationId, userId)
+                && locationDao.unsubscribe(locationId, userId));
+    }
+
+    @Benchmark
+    public boolean subscribeTwice() {
+        return PersistenceUtil.inUnitOfWork(() -> locationDao.subscribe(locationId, userId)
+                | locationDao.subscribe(locationId, userId)
+                | locationDao.unsubscribe(locationId, userId));
+    }
+
+    // Former way: the merge deletes and inserts again all the join rows of the location
+    @Benchmark
+    public int rewriteUsersCollection() {
+        return PersistenceUtil.inUnitOfWork(() -> {
+            Location location = locationDao.findById(locationId).orElseThrow();
+            User user = PersistenceUtil.getEntityManager().find(User.class, userId);
+
+            location.getUsers().add(user);
+            locationDao.update(location);
+            location.getUsers().remove(user);
+            locationDao.update(location);
+
+            return location.getUsers().size();
+        });
+    }
+}
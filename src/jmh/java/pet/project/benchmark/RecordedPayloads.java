@@ -0,0 +1,44 @@
+package pet.project.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.api.WeatherApiResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+// Recorded openweather payloads from src/test/resources/openweather
+public final class RecordedPayloads {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private RecordedPayloads() {
+    }
+
+    public static byte[] load(String fileName) {
+        try (InputStream inputStream = RecordedPayloads.class.getResourceAsStream("/openweather/" + fileName)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Recorded payload is not found: " + fileName);
+            }
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static WeatherApiResponse weather() {
+        return read("weather.json", WeatherApiResponse.class);
+    }
+
+    public static ForecastApiResponse forecast() {
+        return read("forecast.json", ForecastApiResponse.class);
+    }
+
+    private static <T> T read(String fileName, Class<T> type) {
+        try {
+            return OBJECT_MAPPER.readValue(load(fileName), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package pet.project.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.api.WeatherApiResponse;
+import pet.project.model.dto.WeatherDto;
+import pet.project.service.WeatherDtoMapper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherDtoMappingBenchmark {
+    private final WeatherDtoMapper weatherDtoMapper = new WeatherDtoMapper();
+
+    private WeatherApiResponse weather;
+    private ForecastApiResponse forecast;
+
+    @Setup
+    public void setUp() {
+        weather = RecordedPayloads.weather();
+        forecast = RecordedPayloads.forecast();
+    }
+
+    // One location on the home page
+    @Benchmark
+    public WeatherDto currentWeather() {
+        return weatherDtoMapper.toWeatherDto(weather);
+    }
+
+    // Every slot of one forecast page
+    @Benchmark
+    public void forecastSlots(Blackhole blackhole) {
+        for (int slot = 0; slot < forecast.size(); slot++) {
+            blackhole.consume(weatherDtoMapper.toWeatherDto(forecast, slot));
+        }
+    }
+}
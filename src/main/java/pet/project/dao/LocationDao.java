@@ -3,32 +3,64 @@ package pet.project.dao;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.query.NativeQuery;
 import pet.project.model.Location;
-import pet.project.model.User;
+import pet.project.model.dto.LocationDto;
 import pet.project.util.PersistenceUtil;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class LocationDao {
-    private final EntityManager entityManager = PersistenceUtil.getEntityManagerFactory().createEntityManager();
-
     public Optional<Location> findById(Long id) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         Location location = entityManager.find(Location.class, id);
         return Optional.ofNullable(location);
     }
 
-    public List<Location> findByUser(User user) {
-        TypedQuery<Location> query = entityManager.createQuery("SELECT l FROM Location l " +
+    // Projection skips the entity graph, the join table index on (users_id, location_id) covers the subscription lookup
+    public List<LocationDto> findDtosByUserId(Long userId) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        TypedQuery<LocationDto> query = entityManager.createQuery("SELECT new pet.project.model.dto.LocationDto(" +
+                        "l.id, l.name, l.latitude, l.longitude) " +
+                        "FROM Location l " +
                         "JOIN l.users u " +
-                        "WHERE u.id = :userId",
-                Location.class);
-        query.setParameter("userId", user.getId());
+                        "WHERE u.id = :userId " +
+                        "ORDER BY l.id",
+                LocationDto.class);
+        query.setParameter("userId", userId);
+        return List.copyOf(query.getResultList());
+    }
+
+    public List<LocationDto> findAllDtos() {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        TypedQuery<LocationDto> query = entityManager.createQuery("SELECT new pet.project.model.dto.LocationDto(" +
+                        "l.id, l.name, l.latitude, l.longitude) " +
+                        "FROM Location l",
+                LocationDto.class);
         return query.getResultList();
     }
 
+    public Map<Location, Long> findTrackedWithSubscriberCount() {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        TypedQuery<Object[]> query = entityManager.createQuery("SELECT l, COUNT(u) FROM Location l " +
+                        "JOIN l.users u " +
+                        "GROUP BY l",
+                Object[].class);
+
+        Map<Location, Long> subscriberCounts = new LinkedHashMap<>();
+        for (Object[] row : query.getResultList()) {
+            subscriberCounts.put((Location) row[0], (Long) row[1]);
+        }
+        return subscriberCounts;
+    }
+
     public Optional<Location> findByCoordinates(Double latitude, Double longitude) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         TypedQuery<Location> query = entityManager.createQuery("SELECT l FROM Location l " +
                         "WHERE l.latitude = :latitude AND " +
                         "l.longitude = :longitude",
@@ -36,6 +68,10 @@ public class LocationDao {
         query.setParameter("latitude", latitude);
         query.setParameter("longitude", longitude);
 
+        // Result is dropped from the cache as soon as any location is written
+        query.setHint("org.hibernate.cacheable", true);
+        query.setHint("org.hibernate.cacheRegion", PersistenceUtil.LOCATION_BY_COORDINATES_CACHE_REGION);
+
         // Catching RuntimeException is not good
         try {
             Location location = query.getSingleResult();
@@ -46,7 +82,22 @@ public class LocationDao {
         }
     }
 
+    // Writes the single join row, unlike merging the users collection which rewrites all the rows of the location
+    public boolean subscribe(Long locationId, Long userId) {
+        return executeSubscriptionUpdate("INSERT INTO " + Location.SUBSCRIPTIONS_TABLE + " (location_id, users_id) " +
+                        "VALUES (:locationId, :userId) " +
+                        "ON CONFLICT DO NOTHING",
+                locationId, userId) > 0;
+    }
+
+    public boolean unsubscribe(Long locationId, Long userId) {
+        return executeSubscriptionUpdate("DELETE FROM " + Location.SUBSCRIPTIONS_TABLE + " " +
+                        "WHERE location_id = :locationId AND users_id = :userId",
+                locationId, userId) > 0;
+    }
+
     public void save(Location entity) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         EntityTransaction transaction = entityManager.getTransaction();
         try {
             transaction.begin();
@@ -62,6 +113,7 @@ public class LocationDao {
     }
 
     public void delete(Location entity) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         EntityTransaction transaction = entityManager.getTransaction();
         try {
             transaction.begin();
@@ -77,6 +129,7 @@ public class LocationDao {
     }
 
     public void update(Location entity) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         EntityTransaction transaction = entityManager.getTransaction();
         try {
             transaction.begin();
@@ -90,4 +143,25 @@ public class LocationDao {
             throw new RuntimeException(e);
         }
     }
+
+    private int executeSubscriptionUpdate(String sql, Long locationId, Long userId) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        EntityTransaction transaction = entityManager.getTransaction();
+        try {
+            transaction.begin();
+
+            Query query = entityManager.createNativeQuery(sql);
+            query.setParameter("locationId", locationId);
+            query.setParameter("userId", userId);
+            // Only the cached queries over the join table are invalidated, not every cache region
+            query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(Location.SUBSCRIPTIONS_TABLE);
+            int updatedCount = query.executeUpdate();
+
+            transaction.commit();
+            return updatedCount;
+        } catch (Exception e) {
+            transaction.rollback();
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package pet.project.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+import pet.project.model.RevokedSession;
+import pet.project.util.PersistenceUtil;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class RevokedSessionDao {
+    // Signing out twice with the same token keeps the first row
+    public void save(RevokedSession entity) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        Query query = entityManager.createNativeQuery(
+                "INSERT INTO revoked_sessions (id, revoked_at, expires_at) VALUES (:id, :revokedAt, :expiresAt) " +
+                        "ON CONFLICT DO NOTHING"
+        );
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(RevokedSession.class);
+        query.setParameter("id", entity.getId());
+        query.setParameter("revokedAt", entity.getRevokedAt());
+        query.setParameter("expiresAt", entity.getExpiresAt());
+
+        EntityTransaction transaction = entityManager.getTransaction();
+        try {
+            transaction.begin();
+
+            query.executeUpdate();
+
+            transaction.commit();
+        } catch (Exception e) {
+            transaction.rollback();
+            throw new RuntimeException(e);
+        }
+    }
+
+    public List<RevokedSession> findRevokedSince(LocalDateTime time) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        return entityManager.createQuery("SELECT r FROM RevokedSession r WHERE r.revokedAt >= :time", RevokedSession.class)
+                .setParameter("time", time)
+                .getResultList();
+    }
+
+    public int deleteExpiredAtTime(LocalDateTime time) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        Query query = entityManager.createQuery("DELETE FROM RevokedSession r WHERE r.expiresAt <= :time");
+        query.setParameter("time", time);
+
+        EntityTransaction transaction = entityManager.getTransaction();
+        try {
+            transaction.begin();
+
+            int deletedCount = query.executeUpdate();
+
+            transaction.commit();
+            return deletedCount;
+        } catch (Exception e) {
+            transaction.rollback();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -3,32 +3,97 @@ package pet.project.dao;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
 import pet.project.model.Session;
 import pet.project.util.PersistenceUtil;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
+import java.util.StringJoiner;
 import java.util.UUID;
 
 public class SessionDao {
-    private final EntityManager entityManager = PersistenceUtil.getEntityManagerFactory().createEntityManager();
-
     public Optional<Session> findById(UUID id) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         Session session = entityManager.find(Session.class, id);
+
+        // Expiry is changed by bulk updates, a managed copy would keep serving the old value
+        if (session != null) {
+            entityManager.detach(session);
+        }
         return Optional.ofNullable(session);
     }
 
-    public void deleteSessionsExpiredAtTime(LocalDateTime time) {
-        Query query = entityManager.createQuery("DELETE FROM Session s WHERE s.expiresAt <= :time");
+    // Bounded batch keeps the delete short, skipped rows are left to the next batch or another node
+    public int deleteSessionsExpiredAtTime(LocalDateTime time, int limit) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        Query query = entityManager.createNativeQuery(
+                "DELETE FROM sessions WHERE id IN (" +
+                        "SELECT id FROM sessions WHERE expires_at <= :time LIMIT :limit FOR UPDATE SKIP LOCKED" +
+                        ")"
+        );
+        // Without the synchronized entity a native update evicts every second-level cache region
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(Session.class);
         query.setParameter("time", time);
+        query.setParameter("limit", limit);
 
         EntityTransaction transaction = entityManager.getTransaction();
         try {
             transaction.begin();
 
-            query.executeUpdate();
+            int deletedCount = query.executeUpdate();
 
             transaction.commit();
+            return deletedCount;
+        } catch (Exception e) {
+            transaction.rollback();
+            throw new RuntimeException(e);
+        }
+    }
+
+    public long countSessionsExpiredAtTime(LocalDateTime time) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        return entityManager.createQuery("SELECT COUNT(s) FROM Session s WHERE s.expiresAt <= :time", Long.class)
+                .setParameter("time", time)
+                .getSingleResult();
+    }
+
+    // Single statement per batch, an expiry is only ever moved forward
+    public int updateSessionExpiries(Map<UUID, LocalDateTime> expiries) {
+        if (expiries.isEmpty()) {
+            return 0;
+        }
+
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < expiries.size(); i++) {
+            values.add("(CAST(:id" + i + " AS uuid), CAST(:expiresAt" + i + " AS timestamp))");
+        }
+
+        Query query = entityManager.createNativeQuery(
+                "UPDATE sessions SET expires_at = renewed.expires_at " +
+                        "FROM (VALUES " + values + ") AS renewed (id, expires_at) " +
+                        "WHERE sessions.id = renewed.id AND sessions.expires_at < renewed.expires_at"
+        );
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(Session.class);
+
+        int i = 0;
+        for (Map.Entry<UUID, LocalDateTime> expiry : expiries.entrySet()) {
+            query.setParameter("id" + i, expiry.getKey());
+            query.setParameter("expiresAt" + i, expiry.getValue());
+            i++;
+        }
+
+        EntityTransaction transaction = entityManager.getTransaction();
+        try {
+            transaction.begin();
+
+            int updatedCount = query.executeUpdate();
+
+            transaction.commit();
+            return updatedCount;
         } catch (Exception e) {
             transaction.rollback();
             throw new RuntimeException(e);
@@ -36,6 +101,7 @@ public class SessionDao {
     }
 
     public void save(Session entity) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         EntityTransaction transaction = entityManager.getTransaction();
         try {
             transaction.begin();
@@ -44,19 +110,24 @@ public class SessionDao {
             entityManager.flush();
 
             transaction.commit();
+            entityManager.detach(entity);
         } catch (Exception e) {
             transaction.rollback();
             throw new RuntimeException(e);
         }
     }
 
+    // Cached and renewed sessions are detached copies, so the row is deleted by id
     public void delete(Session entity) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        Query query = entityManager.createQuery("DELETE FROM Session s WHERE s.id = :id");
+        query.setParameter("id", entity.getId());
+
         EntityTransaction transaction = entityManager.getTransaction();
         try {
             transaction.begin();
 
-            entityManager.remove(entity);
-            entityManager.flush();
+            query.executeUpdate();
 
             transaction.commit();
         } catch (Exception e) {
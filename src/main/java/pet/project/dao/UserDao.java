@@ -8,9 +8,8 @@ import pet.project.util.PersistenceUtil;
 import java.util.Optional;
 
 public class UserDao {
-    private final EntityManager entityManager = PersistenceUtil.getEntityManagerFactory().createEntityManager();
-
     public Optional<User> findByLogin(String login) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         TypedQuery<User> query = entityManager.createQuery("SELECT u FROM User u WHERE u.login = :login", User.class);
         query.setParameter("login", login);
 
@@ -25,6 +24,7 @@ public class UserDao {
     }
 
     public void save(User entity) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         EntityTransaction transaction = entityManager.getTransaction();
         try {
             transaction.begin();
@@ -43,7 +43,25 @@ public class UserDao {
         }
     }
 
+    public void update(User entity) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
+        EntityTransaction transaction = entityManager.getTransaction();
+        try {
+            transaction.begin();
+
+            entityManager.merge(entity);
+            entityManager.flush();
+
+            transaction.commit();
+
+        } catch (Exception e) {
+            transaction.rollback();
+            throw new RuntimeException(e);
+        }
+    }
+
     public void delete(User entity) {
+        EntityManager entityManager = PersistenceUtil.getEntityManager();
         EntityTransaction transaction = entityManager.getTransaction();
         try {
             transaction.begin();
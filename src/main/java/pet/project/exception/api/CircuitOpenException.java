@@ -0,0 +1,9 @@
+package pet.project.exception.api;
+
+import jakarta.servlet.ServletException;
+
+public class CircuitOpenException extends ServletException {
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package pet.project.exception.api;
+
+import jakarta.servlet.ServletException;
+
+public class RateLimitExceededException extends ServletException {
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
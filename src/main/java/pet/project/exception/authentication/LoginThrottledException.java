@@ -0,0 +1,9 @@
+package pet.project.exception.authentication;
+
+import jakarta.servlet.ServletException;
+
+public class LoginThrottledException extends ServletException {
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package pet.project.exception.authentication;
+
+import jakarta.servlet.ServletException;
+
+public class PasswordHashingRejectedException extends ServletException {
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
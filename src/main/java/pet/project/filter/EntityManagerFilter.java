@@ -0,0 +1,27 @@
+package pet.project.filter;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import pet.project.util.PersistenceUtil;
+
+import java.io.IOException;
+
+// Every request gets its own entity manager, it is closed and its connection returned when the request ends
+@WebFilter("/*")
+public class EntityManagerFilter implements Filter {
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        boolean isOpened = PersistenceUtil.beginUnitOfWork();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (isOpened) {
+                PersistenceUtil.endUnitOfWork();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package pet.project.listener;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import lombok.extern.slf4j.Slf4j;
+import pet.project.dao.LocationDao;
+import pet.project.model.dto.LocationDto;
+import pet.project.service.location.LocationIndex;
+import pet.project.util.CacheUtil;
+import pet.project.util.PersistenceUtil;
+
+import java.util.List;
+
+@Slf4j
+@WebListener
+public class LocationIndexContextListener implements ServletContextListener {
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        LocationIndex locationIndex = CacheUtil.getLocationIndex();
+
+        // Index only narrows the search, without it the exact coordinates are still matched by the database
+        try {
+            List<LocationDto> locations = PersistenceUtil.inUnitOfWork(() -> new LocationDao().findAllDtos());
+            locationIndex.addAll(locations);
+
+            log.info("Location index is loaded: " + locations.size() + " locations");
+        } catch (Exception e) {
+            log.warn("Location index is not loaded: " + e.getMessage());
+        }
+    }
+}
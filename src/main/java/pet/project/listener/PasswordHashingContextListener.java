@@ -0,0 +1,20 @@
+package pet.project.listener;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import pet.project.service.PasswordService;
+
+@WebListener
+public class PasswordHashingContextListener implements ServletContextListener {
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        // Calibration takes about a second, it is done here instead of during the first sign-in
+        PasswordService.getBcryptCost();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        PasswordService.shutdown();
+    }
+}
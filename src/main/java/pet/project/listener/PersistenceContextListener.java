@@ -0,0 +1,18 @@
+package pet.project.listener;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import lombok.extern.slf4j.Slf4j;
+import pet.project.util.PersistenceUtil;
+
+// Declared in web.xml instead of @WebListener: listeners from web.xml start before the annotated ones and are
+// destroyed after them, so the background jobs flushing on stop still have their connections
+@Slf4j
+public class PersistenceContextListener implements ServletContextListener {
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        PersistenceUtil.shutdown();
+
+        log.info("Persistence is shut down");
+    }
+}
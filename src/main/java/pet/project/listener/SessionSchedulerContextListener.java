@@ -4,29 +4,63 @@ import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
 import pet.project.service.SessionService;
+import pet.project.service.session.SessionExpiryService;
+import pet.project.service.session.SessionRenewalFlusher;
+import pet.project.service.session.SessionRevocations;
+import pet.project.util.CacheUtil;
+import pet.project.util.EnvironmentUtil;
 
-import java.util.Calendar;
-import java.util.Date;
-
-import static java.util.Calendar.*;
+import java.time.Duration;
 
 @WebListener
 public class SessionSchedulerContextListener implements ServletContextListener {
+    private SessionExpiryService sessionExpiryService;
+    private SessionRenewalFlusher sessionRenewalFlusher;
+    private SessionRevocations sessionRevocations;
+
     @Override
     public void contextInitialized(ServletContextEvent sce) {
-        SessionService sessionService = new SessionService();
+        if (!SessionService.isDatabaseMode()) {
+            // Bounds how long a signed-out token is still accepted by the other nodes
+            long syncIntervalSeconds = EnvironmentUtil.getLong("SESSION_REVOCATION_SYNC_INTERVAL_SECONDS", 10);
+
+            sessionRevocations = SessionService.getSessionRevocations();
+            sessionRevocations.start(Duration.ofSeconds(syncIntervalSeconds));
+
+            sce.getServletContext().setAttribute("sessionRevocations", sessionRevocations);
+            return;
+        }
 
-        Calendar calendar = Calendar.getInstance();
+        // Small batches keep every delete short, 0 interval disables the expiry
+        long intervalSeconds = EnvironmentUtil.getLong("SESSION_EXPIRY_INTERVAL_SECONDS", 60);
+        int batchSize = EnvironmentUtil.getInt("SESSION_EXPIRY_BATCH_SIZE", 500);
+        int maxBatchesPerRun = EnvironmentUtil.getInt("SESSION_EXPIRY_MAX_BATCHES_PER_RUN", 20);
 
-        calendar.set(HOUR_OF_DAY, 0);
-        calendar.set(MINUTE, 0);
-        calendar.set(SECOND, 0);
+        sessionExpiryService = new SessionExpiryService(batchSize, maxBatchesPerRun);
+        sessionExpiryService.start(Duration.ofSeconds(intervalSeconds));
 
-        Date time = calendar.getTime();
+        sce.getServletContext().setAttribute("sessionExpiryService", sessionExpiryService);
 
-        // Every 24 hours (millis)
-        long interval = 1000 * 60 * 60 * 24;
+        // Renewed expiries live only in memory until this flush, far less than the renewal threshold
+        long flushIntervalSeconds = EnvironmentUtil.getLong("SESSION_RENEWAL_FLUSH_INTERVAL_SECONDS", 30);
+        int flushBatchSize = EnvironmentUtil.getInt("SESSION_RENEWAL_FLUSH_BATCH_SIZE", 500);
 
-        sessionService.scheduleSessionDeletion(time, interval);
+        sessionRenewalFlusher = new SessionRenewalFlusher(CacheUtil.getSessionRenewals(), flushBatchSize);
+        sessionRenewalFlusher.start(Duration.ofSeconds(flushIntervalSeconds));
+
+        sce.getServletContext().setAttribute("sessionRenewalFlusher", sessionRenewalFlusher);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (sessionRevocations != null) {
+            sessionRevocations.stop();
+        }
+        if (sessionRenewalFlusher != null) {
+            sessionRenewalFlusher.stop();
+        }
+        if (sessionExpiryService != null) {
+            sessionExpiryService.stop();
+        }
     }
 }
@@ -0,0 +1,29 @@
+package pet.project.listener;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import pet.project.service.WeatherApiService;
+import pet.project.service.WeatherRefreshService;
+import pet.project.util.EnvironmentUtil;
+
+@WebListener
+public class WeatherRefreshContextListener implements ServletContextListener {
+    private final WeatherRefreshService weatherRefreshService = new WeatherRefreshService();
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        // Share of the openweather plan used for prefetching, 0 disables the background refresh
+        int callsPerMinute = EnvironmentUtil.getInt("WEATHER_REFRESH_CALLS_PER_MINUTE", 20);
+
+        weatherRefreshService.start(callsPerMinute);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        weatherRefreshService.stop();
+
+        // Stopped after the refresh, its last calls may still wait for a token
+        WeatherApiService.shutdown();
+    }
+}
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import pet.project.util.PersistenceUtil;
 
 import java.util.List;
 
@@ -11,8 +14,12 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = PersistenceUtil.LOCATION_CACHE_REGION)
 @Table(name = "locations", uniqueConstraints = {@UniqueConstraint(columnNames = {"latitude", "longitude"})})
 public class Location {
+    public static final String SUBSCRIPTIONS_TABLE = "locations_users";
+
     @Id
     @SequenceGenerator(name = "locations_seq", sequenceName = "locations_seq", allocationSize = 1)
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "locations_seq")
@@ -20,8 +27,15 @@ public class Location {
 
     private String name;
 
+    // Unique pair makes the subscription insert idempotent, the user index serves the lookups of the home page
     @ManyToMany
-    @JoinColumn(name = "user_id")
+    @JoinTable(
+            name = SUBSCRIPTIONS_TABLE,
+            joinColumns = @JoinColumn(name = "location_id"),
+            inverseJoinColumns = @JoinColumn(name = "users_id"),
+            uniqueConstraints = @UniqueConstraint(name = "locations_users_location_user_key", columnNames = {"location_id", "users_id"}),
+            indexes = @Index(name = "locations_users_user_location_idx", columnList = "users_id, location_id")
+    )
     private List<User> users;
 
     private Double latitude;
@@ -0,0 +1,29 @@
+package pet.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Signed-out token session, kept until the token would have expired anyway
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_sessions", indexes = {
+        @Index(name = "revoked_sessions_revoked_at_idx", columnList = "revoked_at"),
+        @Index(name = "revoked_sessions_expires_at_idx", columnList = "expires_at")
+})
+public class RevokedSession {
+    @Id
+    private UUID id;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -12,7 +12,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = @Index(name = "sessions_expires_at_idx", columnList = "expires_at"))
 public class Session {
     @Id
     private UUID id;
@@ -1,34 +1,63 @@
 package pet.project.model.api;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import lombok.Getter;
-import pet.project.model.api.entity.Main;
-import pet.project.model.api.entity.Weather;
-import pet.project.model.api.util.UnixTimestampDeserializer;
+import pet.project.model.api.util.ForecastApiResponseDeserializer;
 
-import java.time.LocalDateTime;
-import java.util.List;
-
-@Getter
-@JsonIgnoreProperties(ignoreUnknown = true)
+// Forecast slots stored column by column in primitive arrays, one index per 3-hour slot.
+// Cached forecasts for many locations stay compact: a handful of arrays instead of several objects per slot.
+@JsonDeserialize(using = ForecastApiResponseDeserializer.class)
 public class ForecastApiResponse {
+    public static final short MISSING_HUMIDITY = -1;
+    public static final short MISSING_WEATHER_CODE = 0;
+
+    private final long[] timestamps;
+    private final float[] temperatures;
+    private final short[] humidities;
+    private final short[] weatherCodes;
+    private final String[] descriptions;
+
+    public ForecastApiResponse() {
+        this(new long[0], new float[0], new short[0], new short[0], new String[0]);
+    }
+
+    public ForecastApiResponse(long[] timestamps, float[] temperatures, short[] humidities,
+                               short[] weatherCodes, String[] descriptions) {
+        int size = timestamps.length;
+        if (temperatures.length != size || humidities.length != size
+                || weatherCodes.length != size || descriptions.length != size) {
+            throw new IllegalArgumentException("Forecast columns must have the same length");
+        }
+
+        this.timestamps = timestamps;
+        this.temperatures = temperatures;
+        this.humidities = humidities;
+        this.weatherCodes = weatherCodes;
+        this.descriptions = descriptions;
+    }
 
-    @JsonProperty("list")
-    private List<HourlyForecast> forecasts;
+    public int size() {
+        return timestamps.length;
+    }
+
+    // Unix time in seconds
+    public long getTimestamp(int slot) {
+        return timestamps[slot];
+    }
 
-    @Getter
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class HourlyForecast {
-        @JsonProperty("dt")
-        @JsonDeserialize(using = UnixTimestampDeserializer.class)
-        private LocalDateTime date;
+    // NaN when the api did not send it
+    public float getTemperature(int slot) {
+        return temperatures[slot];
+    }
 
-        @JsonProperty("main")
-        private Main main;
+    public short getHumidity(int slot) {
+        return humidities[slot];
+    }
+
+    public short getWeatherCode(int slot) {
+        return weatherCodes[slot];
+    }
 
-        @JsonProperty("weather")
-        private List<Weather> weathers;
+    public String getDescription(int slot) {
+        return descriptions[slot];
     }
 }
@@ -0,0 +1,154 @@
+package pet.project.model.api.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import pet.project.model.api.ForecastApiResponse;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static pet.project.model.api.ForecastApiResponse.MISSING_HUMIDITY;
+import static pet.project.model.api.ForecastApiResponse.MISSING_WEATHER_CODE;
+
+// Reads the forecast straight from the token stream into columns, without an object per slot.
+// Slots without "dt" are dropped, other missing values are stored as the MISSING_* markers.
+public class ForecastApiResponseDeserializer extends JsonDeserializer<ForecastApiResponse> {
+    private static final int DEFAULT_CAPACITY = 40;
+
+    @Override
+    public ForecastApiResponse deserialize(JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException {
+        ColumnsBuilder columns = new ColumnsBuilder(DEFAULT_CAPACITY);
+
+        JsonToken token = jsonParser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = jsonParser.nextToken();
+        }
+
+        for (; token == JsonToken.FIELD_NAME; token = jsonParser.nextToken()) {
+            String fieldName = jsonParser.currentName();
+            token = jsonParser.nextToken();
+
+            if (fieldName.equals("list") && token == JsonToken.START_ARRAY) {
+                readSlots(jsonParser, columns);
+            } else {
+                jsonParser.skipChildren();
+            }
+        }
+
+        return columns.build();
+    }
+
+    private static void readSlots(JsonParser jsonParser, ColumnsBuilder columns) throws IOException {
+        while (jsonParser.nextToken() == JsonToken.START_OBJECT) {
+            long timestamp = Long.MIN_VALUE;
+            float temperature = Float.NaN;
+            short humidity = MISSING_HUMIDITY;
+            short weatherCode = MISSING_WEATHER_CODE;
+            String description = null;
+
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = jsonParser.currentName();
+                JsonToken token = jsonParser.nextToken();
+
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+
+                switch (fieldName) {
+                    case "dt":
+                        timestamp = jsonParser.getValueAsLong();
+                        break;
+                    case "main":
+                        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                            String mainFieldName = jsonParser.currentName();
+                            JsonToken mainToken = jsonParser.nextToken();
+
+                            if (mainToken.isNumeric() && mainFieldName.equals("temp")) {
+                                temperature = jsonParser.getFloatValue();
+                            } else if (mainToken.isNumeric() && mainFieldName.equals("humidity")) {
+                                humidity = (short) jsonParser.getValueAsInt();
+                            } else {
+                                jsonParser.skipChildren();
+                            }
+                        }
+                        break;
+                    case "weather":
+                        // Only the first weather of a slot is shown
+                        for (int i = 0; jsonParser.nextToken() == JsonToken.START_OBJECT; i++) {
+                            if (i > 0) {
+                                jsonParser.skipChildren();
+                                continue;
+                            }
+                            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                                String weatherFieldName = jsonParser.currentName();
+                                JsonToken weatherToken = jsonParser.nextToken();
+
+                                if (weatherToken.isNumeric() && weatherFieldName.equals("id")) {
+                                    weatherCode = (short) jsonParser.getValueAsInt();
+                                } else if (weatherToken == JsonToken.VALUE_STRING && weatherFieldName.equals("description")) {
+                                    // Descriptions come from a small vocabulary, cached forecasts share the instances
+                                    description = jsonParser.getText().intern();
+                                } else {
+                                    jsonParser.skipChildren();
+                                }
+                            }
+                        }
+                        break;
+                    default:
+                        jsonParser.skipChildren();
+                }
+            }
+
+            if (timestamp != Long.MIN_VALUE) {
+                columns.add(timestamp, temperature, humidity, weatherCode, description);
+            }
+        }
+    }
+
+    private static class ColumnsBuilder {
+        private long[] timestamps;
+        private float[] temperatures;
+        private short[] humidities;
+        private short[] weatherCodes;
+        private String[] descriptions;
+        private int size;
+
+        ColumnsBuilder(int capacity) {
+            timestamps = new long[capacity];
+            temperatures = new float[capacity];
+            humidities = new short[capacity];
+            weatherCodes = new short[capacity];
+            descriptions = new String[capacity];
+        }
+
+        void add(long timestamp, float temperature, short humidity, short weatherCode, String description) {
+            if (size == timestamps.length) {
+                resize(size * 2);
+            }
+
+            timestamps[size] = timestamp;
+            temperatures[size] = temperature;
+            humidities[size] = humidity;
+            weatherCodes[size] = weatherCode;
+            descriptions[size] = description;
+            size++;
+        }
+
+        ForecastApiResponse build() {
+            if (size != timestamps.length) {
+                resize(size);
+            }
+            return new ForecastApiResponse(timestamps, temperatures, humidities, weatherCodes, descriptions);
+        }
+
+        private void resize(int capacity) {
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            temperatures = Arrays.copyOf(temperatures, capacity);
+            humidities = Arrays.copyOf(humidities, capacity);
+            weatherCodes = Arrays.copyOf(weatherCodes, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package pet.project.model.dto;
+
+import lombok.Value;
+import pet.project.model.Location;
+
+// Read-only view of a tracked location for the home page, it is never attached to an entity manager
+@Value
+public class LocationDto {
+    Long id;
+
+    String name;
+
+    Double latitude;
+
+    Double longitude;
+
+    public static LocationDto of(Location location) {
+        return new LocationDto(location.getId(), location.getName(), location.getLatitude(), location.getLongitude());
+    }
+}
@@ -43,4 +43,6 @@ public class WeatherDto {
     private Date sunrise;
 
     private Date sunset;
+
+    private boolean stale;
 }
@@ -11,7 +11,10 @@ public enum TimeOfDay {
         if (time == null) {
             return UNDEFINED;
         }
-        int currentTime = time.getHour();
-        return currentTime >= 8 && currentTime <= 20 ? DAY : NIGHT;
+        return getTimeOfDayForHour(time.getHour());
+    }
+
+    public static TimeOfDay getTimeOfDayForHour(int hour) {
+        return hour >= 8 && hour <= 20 ? DAY : NIGHT;
     }
 }
@@ -10,30 +10,46 @@ public enum WeatherCondition {
     CLOUDS,
     UNDEFINED;
 
-    public static WeatherCondition getWeatherConditionForCode(Integer code) {
-        String codeStr = String.valueOf(code);
+    // OpenWeather condition codes are three digits, the first one is the group
+    private static final WeatherCondition[] CONDITIONS_BY_CODE = new WeatherCondition[1000];
 
-        if (codeStr.startsWith("2")) {
-            return THUNDERSTORM;
-        }
-        if (codeStr.startsWith("3")) {
-            return DRIZZLE;
-        }
-        if (codeStr.startsWith("5")) {
-            return RAIN;
+    static {
+        for (int code = 0; code < CONDITIONS_BY_CODE.length; code++) {
+            CONDITIONS_BY_CODE[code] = classify(code);
         }
-        if (codeStr.startsWith("6")) {
-            return SNOW;
-        }
-        if (codeStr.startsWith("7")) {
-            return ATMOSPHERE;
+    }
+
+    public static WeatherCondition getWeatherConditionForCode(Integer code) {
+        return code == null ? UNDEFINED : getWeatherConditionForCode(code.intValue());
+    }
+
+    public static WeatherCondition getWeatherConditionForCode(int code) {
+        return code >= 0 && code < CONDITIONS_BY_CODE.length ? CONDITIONS_BY_CODE[code] : UNDEFINED;
+    }
+
+    private static WeatherCondition classify(int code) {
+        if (code < 100) {
+            return UNDEFINED;
         }
-        if (codeStr.equals("800")) {
+        if (code == 800) {
             return CLEAR;
         }
-        if (codeStr.startsWith("8")) {
-            return CLOUDS;
+
+        switch (code / 100) {
+            case 2:
+                return THUNDERSTORM;
+            case 3:
+                return DRIZZLE;
+            case 5:
+                return RAIN;
+            case 6:
+                return SNOW;
+            case 7:
+                return ATMOSPHERE;
+            case 8:
+                return CLOUDS;
+            default:
+                return UNDEFINED;
         }
-        return UNDEFINED;
     }
 }
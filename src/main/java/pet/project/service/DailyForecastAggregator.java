@@ -0,0 +1,154 @@
+package pet.project.service;
+
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.dto.WeatherDto;
+import pet.project.model.dto.enums.WeatherCondition;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static pet.project.model.api.ForecastApiResponse.MISSING_HUMIDITY;
+import static pet.project.model.dto.enums.TimeOfDay.UNDEFINED;
+
+// Aggregates forecast slots into daily forecasts in a single pass over chronologically ordered slots.
+// Like before, the last day is left out because the api only covers part of it.
+public class DailyForecastAggregator {
+    private static final WeatherCondition[] WEATHER_CONDITIONS = WeatherCondition.values();
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    public List<WeatherDto> aggregate(ForecastApiResponse forecast) {
+        List<WeatherDto> dailyForecasts = new ArrayList<>();
+
+        if (forecast.size() == 0) {
+            return dailyForecasts;
+        }
+
+        int[] order = getChronologicalOrder(forecast);
+        ZoneRules zoneRules = ZoneId.systemDefault().getRules();
+        DayAccumulator day = new DayAccumulator();
+
+        for (int i = 0; i < forecast.size(); i++) {
+            int slot = order == null ? i : order[i];
+            long timestamp = forecast.getTimestamp(slot);
+            long epochDay = Math.floorDiv(
+                    timestamp + zoneRules.getOffset(Instant.ofEpochSecond(timestamp)).getTotalSeconds(),
+                    SECONDS_PER_DAY
+            );
+
+            if (day.isStarted() && epochDay != day.getEpochDay()) {
+                dailyForecasts.add(day.build());
+                day.reset();
+            }
+            day.add(forecast, slot, epochDay);
+        }
+
+        return dailyForecasts;
+    }
+
+    // Null when the slots are already in order, which is how the api sends them
+    private static int[] getChronologicalOrder(ForecastApiResponse forecast) {
+        for (int slot = 1; slot < forecast.size(); slot++) {
+            if (forecast.getTimestamp(slot) < forecast.getTimestamp(slot - 1)) {
+                return IntStream.range(0, forecast.size())
+                        .boxed()
+                        .sorted(Comparator.comparingLong(forecast::getTimestamp))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+        return null;
+    }
+
+    // Running statistics for one day, a new statistic is one more field here and one more line in build()
+    private static class DayAccumulator {
+        private final int[] conditionCounts = new int[WEATHER_CONDITIONS.length];
+
+        private boolean isStarted;
+        private long epochDay;
+        private long firstTimestamp;
+        private int temperatureCount;
+        private double temperatureSum;
+        private double temperatureMinimum;
+        private double temperatureMaximum;
+        private int humidityCount;
+        private long humiditySum;
+        private WeatherCondition dominantCondition;
+        private int dominantConditionCount;
+
+        DayAccumulator() {
+            reset();
+        }
+
+        boolean isStarted() {
+            return isStarted;
+        }
+
+        long getEpochDay() {
+            return epochDay;
+        }
+
+        void add(ForecastApiResponse forecast, int slot, long slotEpochDay) {
+            if (!isStarted) {
+                isStarted = true;
+                epochDay = slotEpochDay;
+                firstTimestamp = forecast.getTimestamp(slot);
+            }
+
+            float temperature = forecast.getTemperature(slot);
+            if (!Float.isNaN(temperature)) {
+                temperatureSum += temperature;
+                temperatureMinimum = Math.min(temperatureMinimum, temperature);
+                temperatureMaximum = Math.max(temperatureMaximum, temperature);
+                temperatureCount++;
+            }
+
+            short humidity = forecast.getHumidity(slot);
+            if (humidity != MISSING_HUMIDITY) {
+                humiditySum += humidity;
+                humidityCount++;
+            }
+
+            // Ties go to the condition that reached the count first
+            WeatherCondition condition = WeatherCondition.getWeatherConditionForCode(forecast.getWeatherCode(slot));
+            int count = ++conditionCounts[condition.ordinal()];
+            if (count > dominantConditionCount) {
+                dominantCondition = condition;
+                dominantConditionCount = count;
+            }
+        }
+
+        WeatherDto build() {
+            return WeatherDto.builder()
+                    .date(new Date(firstTimestamp * 1000))
+                    .temperature(temperatureCount == 0 ? Double.NaN : temperatureSum / temperatureCount)
+                    .temperatureMaximum(temperatureCount == 0 ? Double.NaN : temperatureMaximum)
+                    .temperatureMinimum(temperatureCount == 0 ? Double.NaN : temperatureMinimum)
+                    .humidity(humidityCount == 0 ? null : (int) Math.round((double) humiditySum / humidityCount))
+                    .timeOfDay(UNDEFINED)
+                    .weatherCondition(dominantCondition)
+                    .build();
+        }
+
+        void reset() {
+            Arrays.fill(conditionCounts, 0);
+            isStarted = false;
+            epochDay = 0;
+            firstTimestamp = 0;
+            temperatureCount = 0;
+            temperatureSum = 0;
+            temperatureMinimum = Double.POSITIVE_INFINITY;
+            temperatureMaximum = Double.NEGATIVE_INFINITY;
+            humidityCount = 0;
+            humiditySum = 0;
+            dominantCondition = WeatherCondition.UNDEFINED;
+            dominantConditionCount = 0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package pet.project.service;
+
+import com.password4j.BcryptFunction;
+import com.password4j.Password;
+import lombok.extern.slf4j.Slf4j;
+import pet.project.exception.authentication.LoginThrottledException;
+import pet.project.exception.authentication.PasswordHashingRejectedException;
+import pet.project.service.password.BcryptCostCalibrator;
+import pet.project.service.password.LoginThrottle;
+import pet.project.service.password.PasswordHashingExecutor;
+import pet.project.util.EnvironmentUtil;
+
+import java.time.Duration;
+
+@Slf4j
+public class PasswordService {
+    // Cost is measured on this instance at startup unless it is pinned, e.g. to keep it equal across a cluster
+    private static final int BCRYPT_COST = resolveBcryptCost();
+    private static final BcryptFunction BCRYPT_FUNCTION = BcryptFunction.getInstance(BCRYPT_COST);
+
+    private static final int HASHING_THREAD_COUNT = EnvironmentUtil.getInt(
+            "PASSWORD_HASHING_THREADS",
+            Runtime.getRuntime().availableProcessors()
+    );
+
+    // Shared by all servlets, so sign-in and sign-up together never take more than the cores
+    private static final PasswordHashingExecutor HASHING_EXECUTOR = new PasswordHashingExecutor(
+            HASHING_THREAD_COUNT,
+            EnvironmentUtil.getInt("PASSWORD_HASHING_QUEUE_LIMIT", HASHING_THREAD_COUNT * 16),
+            Duration.ofMillis(EnvironmentUtil.getLong("PASSWORD_HASHING_TIMEOUT_MILLIS", 3000))
+    );
+
+    private static final LoginThrottle LOGIN_THROTTLE = new LoginThrottle(
+            EnvironmentUtil.getInt("LOGIN_MAX_CONCURRENT_CHECKS", 2),
+            EnvironmentUtil.getInt("LOGIN_MAX_FAILURES", 5),
+            Duration.ofSeconds(EnvironmentUtil.getLong("LOGIN_FAILURE_WINDOW_SECONDS", 5 * 60))
+    );
+
+    public String hash(String password) throws PasswordHashingRejectedException {
+        return HASHING_EXECUTOR.execute(() -> Password.hash(password).with(BCRYPT_FUNCTION).getResult());
+    }
+
+    public boolean check(String login, String password, String hash) throws PasswordHashingRejectedException, LoginThrottledException {
+        if (!LOGIN_THROTTLE.tryAcquire(login)) {
+            throw new LoginThrottledException("Too many sign-in attempts for user: " + login + ", please try again later");
+        }
+
+        boolean isMatched;
+        try {
+            // Default bcrypt function checks only hashes of its own cost, so the function is taken from the hash
+            isMatched = HASHING_EXECUTOR.execute(() -> Password.check(password, hash).with(BcryptFunction.getInstanceFromHash(hash)));
+        } catch (PasswordHashingRejectedException | RuntimeException e) {
+            LOGIN_THROTTLE.release(login);
+            throw e;
+        }
+
+        LOGIN_THROTTLE.release(login, isMatched);
+        return isMatched;
+    }
+
+    // Hash created with another cost, e.g. on different hardware, is replaced after the next successful sign-in
+    public boolean needsRehash(String hash) {
+        return BcryptCostCalibrator.getCost(hash) != BCRYPT_COST;
+    }
+
+    public static int getBcryptCost() {
+        return BCRYPT_COST;
+    }
+
+    public static void shutdown() {
+        HASHING_EXECUTOR.shutdown();
+    }
+
+    public static PasswordHashingExecutor getHashingExecutor() {
+        return HASHING_EXECUTOR;
+    }
+
+    public static LoginThrottle getLoginThrottle() {
+        return LOGIN_THROTTLE;
+    }
+
+    private static int resolveBcryptCost() {
+        int pinnedCost = EnvironmentUtil.getInt("PASSWORD_BCRYPT_COST", 0);
+        if (pinnedCost > 0) {
+            log.info("Bcrypt cost is pinned: " + pinnedCost);
+            return pinnedCost;
+        }
+
+        Duration targetLatency = Duration.ofMillis(EnvironmentUtil.getLong("PASSWORD_HASHING_TARGET_MILLIS", 250));
+        int cost = BcryptCostCalibrator.calibrate(targetLatency);
+
+        log.info("Bcrypt cost is calibrated: " + cost + " for the target of " + targetLatency.toMillis() + " ms");
+        return cost;
+    }
+}
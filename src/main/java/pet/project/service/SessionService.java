@@ -1,43 +1,113 @@
 package pet.project.service;
 
+import lombok.extern.slf4j.Slf4j;
 import pet.project.dao.SessionDao;
+import pet.project.model.Session;
+import pet.project.model.User;
+import pet.project.service.cache.SessionCache;
+import pet.project.service.session.DatabaseSessionStore;
+import pet.project.service.session.SessionRevocations;
+import pet.project.service.session.SessionStore;
+import pet.project.service.session.SignedTokenSessionStore;
+import pet.project.util.CacheUtil;
+import pet.project.util.EnvironmentUtil;
 
-import java.time.LocalDateTime;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
-
-import static java.util.Calendar.*;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
 
+@Slf4j
 public class SessionService {
-    private final SessionDao sessionDao = new SessionDao();
+    private static final Duration SESSION_DURATION = Duration.ofHours(24);
 
-    public void scheduleSessionDeletion(Date time, long interval) {
-        if (time == null) {
-            Calendar calendar = Calendar.getInstance();
+    // Active session is extended to the full duration once less than this is left, 0 disables the renewal
+    private static final Duration SESSION_RENEWAL_THRESHOLD = Duration.ofSeconds(
+            EnvironmentUtil.getLong("SESSION_RENEWAL_THRESHOLD_SECONDS", 12 * 60 * 60)
+    );
 
-            calendar.set(HOUR_OF_DAY, 0);
-            calendar.set(MINUTE, 0);
-            calendar.set(SECOND, 0);
+    // "database" keeps sessions in the sessions table, "token" keeps them in signed cookies
+    private static final String SESSION_MODE = EnvironmentUtil.getString("SESSION_MODE", "database");
 
-            time = calendar.getTime();
-        }
+    private final SessionStore sessionStore;
 
-        if (interval <= 0) {
-            interval = 1000 * 60 * 60 * 24;
-        }
+    public SessionService() {
+        this(createSessionStore());
+    }
 
-        SessionDeletionTask sessionDeletionTask = new SessionDeletionTask();
-        Timer timer = new Timer();
+    public SessionService(SessionDao sessionDao, SessionCache sessionCache) {
+        this(new DatabaseSessionStore(sessionDao, sessionCache, SESSION_DURATION));
+    }
+
+    public SessionService(SessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    public Optional<Session> findActiveSession(String cookieValue) {
+        return sessionStore.findActiveSession(cookieValue);
+    }
+
+    public Session createSession(User user) {
+        return sessionStore.createSession(user);
+    }
+
+    public String getCookieValue(Session session) {
+        return sessionStore.getCookieValue(session);
+    }
 
-        timer.schedule(sessionDeletionTask, time, interval);
+    public void deleteSession(String cookieValue, Session session) {
+        sessionStore.deleteSession(cookieValue, session);
     }
 
-    private class SessionDeletionTask extends TimerTask {
-        @Override
-        public void run() {
-            sessionDao.deleteSessionsExpiredAtTime(LocalDateTime.now());
+    // Only the database mode leaves expired rows behind
+    public static boolean isDatabaseMode() {
+        return "database".equals(SESSION_MODE);
+    }
+
+    public static SessionRevocations getSessionRevocations() {
+        return SignedTokenSessionStoreHolder.REVOCATIONS;
+    }
+
+    private static SessionStore createSessionStore() {
+        switch (SESSION_MODE) {
+            case "database":
+                return new DatabaseSessionStore(
+                        new SessionDao(),
+                        CacheUtil.getSessionCache(),
+                        CacheUtil.getSessionRenewals(),
+                        SESSION_DURATION,
+                        SESSION_RENEWAL_THRESHOLD
+                );
+            case "token":
+                return SignedTokenSessionStoreHolder.INSTANCE;
+            default:
+                throw new IllegalStateException("Unknown SESSION_MODE: " + SESSION_MODE);
+        }
+    }
+
+    // Every web node must share the secret, otherwise tokens are accepted only by the node that issued them
+    private static byte[] getTokenSecret() {
+        String secret = EnvironmentUtil.getString("SESSION_TOKEN_SECRET", "");
+
+        if (secret.isBlank()) {
+            log.warn("SESSION_TOKEN_SECRET is not set: using a random secret, sessions will not survive a restart");
+            byte[] randomSecret = new byte[32];
+            new SecureRandom().nextBytes(randomSecret);
+            return randomSecret;
+        }
+
+        try {
+            return Base64.getDecoder().decode(secret);
+        } catch (IllegalArgumentException e) {
+            return secret.getBytes(StandardCharsets.UTF_8);
         }
     }
+
+    // Token store is shared by all servlets. Sign-outs go to the revoked_sessions table at once, another node
+    // still accepts the signed-out token until its next revocation sync, see SESSION_REVOCATION_SYNC_INTERVAL_SECONDS
+    private static class SignedTokenSessionStoreHolder {
+        private static final SessionRevocations REVOCATIONS = new SessionRevocations(SESSION_DURATION);
+        private static final SessionStore INSTANCE = new SignedTokenSessionStore(getTokenSecret(), SESSION_DURATION, REVOCATIONS);
+    }
 }
@@ -2,6 +2,7 @@ package pet.project.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import pet.project.exception.api.ForecastApiCallException;
 import pet.project.exception.api.GeocodingApiCallException;
 import pet.project.exception.api.WeatherApiCallException;
@@ -9,75 +10,266 @@ import pet.project.model.Location;
 import pet.project.model.api.ForecastApiResponse;
 import pet.project.model.api.LocationApiResponse;
 import pet.project.model.api.WeatherApiResponse;
+import pet.project.model.dto.LocationDto;
+import pet.project.service.api.CallPriority;
+import pet.project.service.api.CircuitBreaker;
+import pet.project.service.api.RateLimiter;
+import pet.project.service.api.SingleFlight;
+import pet.project.service.api.UpstreamStatusException;
+import pet.project.service.cache.GeocodingCache;
+import pet.project.service.cache.LocationKey;
+import pet.project.service.cache.TtlCache;
+import pet.project.util.CacheUtil;
+import pet.project.util.EnvironmentUtil;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
 
 public class WeatherApiService {
-    private static final String APP_ID = "ff54fce37c4721c1b5e9e22bbd8e9274";
-    private static final String BASE_API_URL = "https://api.openweathermap.org";
+    private static final String APP_ID = EnvironmentUtil.getString("OPENWEATHER_APP_ID", "ff54fce37c4721c1b5e9e22bbd8e9274");
+    // Points to a local stub server for offline load and latency testing
+    private static final String BASE_API_URL = EnvironmentUtil.getString("OPENWEATHER_BASE_URL", "https://api.openweathermap.org");
     private static final String WEATHER_API_URL_SUFFIX = "/data/2.5/weather";
     private static final String FORECAST_API_URL_SUFFIX = "/data/2.5/forecast";
     private static final String GEOCODING_API_URL_SUFFIX = "/geo/1.0/direct";
 
-    private final HttpClient client = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    public static final int GEOCODING_RESULT_LIMIT = 5;
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    // Readers are immutable and thread-safe, so they are resolved once and reused for every response
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader WEATHER_READER = OBJECT_MAPPER.readerFor(WeatherApiResponse.class);
+    private static final ObjectReader FORECAST_READER = OBJECT_MAPPER.readerFor(ForecastApiResponse.class);
+    private static final ObjectReader LOCATIONS_READER = OBJECT_MAPPER.readerFor(new TypeReference<List<LocationApiResponse>>() {});
+
+    // Shared by all instances, so identical concurrent calls from any servlet are coalesced
+    private static final SingleFlight<URI, WeatherApiResponse> WEATHER_CALLS = new SingleFlight<>();
+    private static final SingleFlight<URI, ForecastApiResponse> FORECAST_CALLS = new SingleFlight<>();
+    private static final SingleFlight<URI, List<LocationApiResponse>> GEOCODING_CALLS = new SingleFlight<>();
+
+    // Calls of every instance share the quota of the openweather plan
+    private static final RateLimiter RATE_LIMITER = new RateLimiter(
+            EnvironmentUtil.getInt("OPENWEATHER_CALLS_PER_MINUTE", 60),
+            EnvironmentUtil.getInt("OPENWEATHER_CALLS_BURST", 10)
+    );
+
+    // One circuit per endpoint, so a failing forecast endpoint does not cut off the current weather
+    private static final CircuitBreaker WEATHER_CIRCUIT_BREAKER = createCircuitBreaker();
+    private static final CircuitBreaker FORECAST_CIRCUIT_BREAKER = createCircuitBreaker();
+    private static final CircuitBreaker GEOCODING_CIRCUIT_BREAKER = createCircuitBreaker();
+
+    private final CallPriority callPriority;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+    private final TtlCache<LocationKey, WeatherApiResponse> weatherCache = CacheUtil.getWeatherCache();
+    private final GeocodingCache geocodingCache = CacheUtil.getGeocodingCache();
+
+    public WeatherApiService() {
+        this(CallPriority.INTERACTIVE);
+    }
+
+    public WeatherApiService(CallPriority callPriority) {
+        this.callPriority = callPriority;
+    }
 
     public WeatherApiResponse getWeatherForLocation(Location location) throws WeatherApiCallException {
         try {
-            URI uri = buildUriForWeatherRequest(location);
-            HttpRequest request = buildRequest(uri);
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            return objectMapper.readValue(response.body(), WeatherApiResponse.class);
+            return getWeatherForLocationAsync(location).join();
 
         } catch (Exception e) {
             throw new WeatherApiCallException("Issues with calling api for location with id = " + location.getId());
         }
     }
 
+    public CompletableFuture<WeatherApiResponse> getWeatherForLocationAsync(Location location) {
+        return getWeatherAsync(LocationKey.of(location));
+    }
+
+    public CompletableFuture<WeatherApiResponse> getWeatherForLocationAsync(LocationDto location) {
+        return getWeatherAsync(LocationKey.of(location));
+    }
+
+    // Last known weather regardless of its freshness, served when the api call has failed
+    public Optional<WeatherApiResponse> getStaleWeatherForLocation(Location location) {
+        return weatherCache.getStale(LocationKey.of(location));
+    }
+
+    public Optional<WeatherApiResponse> getStaleWeatherForLocation(LocationDto location) {
+        return weatherCache.getStale(LocationKey.of(location));
+    }
+
+    // Always calls the api and stores the result in the cache
+    public CompletableFuture<WeatherApiResponse> refreshWeatherForLocationAsync(Location location) {
+        return refreshWeatherAsync(LocationKey.of(location));
+    }
+
     public List<LocationApiResponse> getLocationsByName(String nameOfLocation) throws GeocodingApiCallException {
         try {
-            URI uri = buildUriForGeocodingRequest(nameOfLocation);
-            HttpRequest request = buildRequest(uri);
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            return objectMapper.readValue(
-                    response.body(),
-                    new TypeReference<List<LocationApiResponse>>() {}
-            );
+            return getLocationsByNameAsync(nameOfLocation).join();
 
         } catch (Exception e) {
             throw new GeocodingApiCallException("Issues with calling geocoding api for name = " + nameOfLocation);
         }
     }
 
+    public CompletableFuture<List<LocationApiResponse>> getLocationsByNameAsync(String nameOfLocation) {
+        String query = GeocodingCache.normalize(nameOfLocation);
+        Optional<List<LocationApiResponse>> cachedLocations = geocodingCache.get(query);
+
+        if (cachedLocations.isPresent()) {
+            return CompletableFuture.completedFuture(cachedLocations.get());
+        }
+
+        // Search goes after the page requests, but before the background calls
+        CallPriority geocodingPriority = callPriority == CallPriority.INTERACTIVE ? CallPriority.SEARCH : callPriority;
+
+        return sendAsync(buildUriForGeocodingRequest(query), LOCATIONS_READER, GEOCODING_CALLS, GEOCODING_CIRCUIT_BREAKER, geocodingPriority)
+                .whenComplete((locations, throwable) -> {
+                    if (locations != null) {
+                        geocodingCache.put(query, locations);
+                    }
+                });
+    }
+
     public ForecastApiResponse getForecastForLocation(Location location) throws ForecastApiCallException {
         try {
-            URI uri = buildUriForForecastRequest(location);
-            HttpRequest request = buildRequest(uri);
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            return objectMapper.readValue(response.body(), ForecastApiResponse.class);
+            return getForecastForLocationAsync(location).join();
 
         } catch (Exception e) {
             throw new ForecastApiCallException("Issues with calling api for location with id = " + location.getId());
         }
     }
 
+    public CompletableFuture<ForecastApiResponse> getForecastForLocationAsync(Location location) {
+        return sendAsync(buildUriForForecastRequest(location), FORECAST_READER, FORECAST_CALLS, FORECAST_CIRCUIT_BREAKER, callPriority);
+    }
+
+    public static long getCoalescedCallCount() {
+        return WEATHER_CALLS.getCoalescedCount()
+                + FORECAST_CALLS.getCoalescedCount()
+                + GEOCODING_CALLS.getCoalescedCount();
+    }
+
+    public static long getExecutedCallCount() {
+        return WEATHER_CALLS.getExecutedCount()
+                + FORECAST_CALLS.getExecutedCount()
+                + GEOCODING_CALLS.getExecutedCount();
+    }
+
+    public static void shutdown() {
+        RATE_LIMITER.shutdown();
+    }
+
+    public static RateLimiter getRateLimiter() {
+        return RATE_LIMITER;
+    }
+
+    public static Map<String, CircuitBreaker> getCircuitBreakers() {
+        Map<String, CircuitBreaker> circuitBreakers = new LinkedHashMap<>();
+        circuitBreakers.put("weather", WEATHER_CIRCUIT_BREAKER);
+        circuitBreakers.put("forecast", FORECAST_CIRCUIT_BREAKER);
+        circuitBreakers.put("geocoding", GEOCODING_CIRCUIT_BREAKER);
+        return circuitBreakers;
+    }
+
+    private <T> CompletableFuture<T> sendAsync(URI uri, ObjectReader reader, SingleFlight<URI, T> inFlightCalls,
+                                               CircuitBreaker circuitBreaker, CallPriority priority) {
+        return inFlightCalls.execute(uri, () -> circuitBreaker.execute(
+                () -> RATE_LIMITER.acquire(priority),
+                () -> callUpstream(uri, reader)
+        ));
+    }
+
+    private <T> CompletableFuture<T> callUpstream(URI uri, ObjectReader reader) {
+        return client.sendAsync(buildRequest(uri), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(WeatherApiService::requireSuccessfulResponse)
+                .thenApply(response -> readValue(response, reader));
+    }
+
+    private static HttpResponse<InputStream> requireSuccessfulResponse(HttpResponse<InputStream> response) {
+        // Error payloads must not be deserialized into empty responses and cached
+        if (response.statusCode() != 200) {
+            closeQuietly(response.body());
+            throw new CompletionException(new UpstreamStatusException(response.statusCode(),
+                    "Unexpected status code " + response.statusCode() + " for " + response.uri()));
+        }
+        return response;
+    }
+
+    // Body is parsed straight from the stream without materializing it as a String
+    private static <T> T readValue(HttpResponse<InputStream> response, ObjectReader reader) {
+        try (InputStream rawBody = response.body();
+             InputStream body = isGzipped(response) ? new GZIPInputStream(rawBody) : rawBody) {
+            return reader.readValue(body);
+
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static boolean isGzipped(HttpResponse<InputStream> response) {
+        return response.headers()
+                .firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException ignored) {
+        }
+    }
+
     private static HttpRequest buildRequest(URI uri) {
         return HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept-Encoding", "gzip")
                 .GET()
                 .build();
     }
 
-    private static URI buildUriForWeatherRequest(Location location) {
+    private CompletableFuture<WeatherApiResponse> getWeatherAsync(LocationKey key) {
+        Optional<WeatherApiResponse> cachedWeather = weatherCache.get(key);
+
+        if (cachedWeather.isPresent()) {
+            return CompletableFuture.completedFuture(cachedWeather.get());
+        }
+
+        return refreshWeatherAsync(key);
+    }
+
+    private CompletableFuture<WeatherApiResponse> refreshWeatherAsync(LocationKey key) {
+        return sendAsync(buildUriForWeatherRequest(key), WEATHER_READER, WEATHER_CALLS, WEATHER_CIRCUIT_BREAKER, callPriority)
+                .whenComplete((weather, throwable) -> {
+                    if (weather != null) {
+                        weatherCache.put(key, weather);
+                    }
+                });
+    }
+
+    private static URI buildUriForWeatherRequest(LocationKey key) {
         return URI.create(BASE_API_URL + WEATHER_API_URL_SUFFIX
-                + "?lat=" + location.getLatitude()
-                + "&lon=" + location.getLongitude()
+                + "?lat=" + key.getLatitude()
+                + "&lon=" + key.getLongitude()
                 + "&appid=" + APP_ID
                 + "&units=" + "metric");
     }
@@ -93,8 +285,29 @@ public class WeatherApiService {
     private static URI buildUriForGeocodingRequest(String nameOfLocation) {
         // Somehow without explicit limit api returns only 1 object
         return URI.create(BASE_API_URL + GEOCODING_API_URL_SUFFIX
-                + "?q=" + nameOfLocation
-                + "&limit=5"
+                + "?q=" + URLEncoder.encode(nameOfLocation, StandardCharsets.UTF_8)
+                + "&limit=" + GEOCODING_RESULT_LIMIT
                 + "&appid=" + APP_ID);
     }
+
+    private static CircuitBreaker createCircuitBreaker() {
+        return new CircuitBreaker(
+                20,
+                10,
+                EnvironmentUtil.getInt("CIRCUIT_BREAKER_FAILURE_RATE_PERCENT", 50),
+                Duration.ofMillis(EnvironmentUtil.getLong("CIRCUIT_BREAKER_SLOW_CALL_MILLIS", 3000)),
+                Duration.ofSeconds(EnvironmentUtil.getLong("CIRCUIT_BREAKER_OPEN_WAIT_SECONDS", 10)),
+                WeatherApiService::isUpstreamFailure
+        );
+    }
+
+    // Only an unavailable or overloaded upstream trips the circuit, a 4xx for a bad request says it is up
+    static boolean isUpstreamFailure(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+
+        if (cause instanceof UpstreamStatusException) {
+            return ((UpstreamStatusException) cause).isUpstreamFailure();
+        }
+        return cause instanceof IOException || cause instanceof TimeoutException;
+    }
 }
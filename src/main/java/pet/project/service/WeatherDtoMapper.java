@@ -0,0 +1,97 @@
+package pet.project.service;
+
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.api.WeatherApiResponse;
+import pet.project.model.api.entity.Main;
+import pet.project.model.api.entity.Weather;
+import pet.project.model.api.entity.Wind;
+import pet.project.model.dto.WeatherDto;
+import pet.project.model.dto.enums.TimeOfDay;
+import pet.project.model.dto.enums.WeatherCondition;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+
+// Maps api responses to dtos for the pages. Dates are converted through the cached zone rules
+// straight to epoch millis, without ZonedDateTime and Instant per field.
+public class WeatherDtoMapper {
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int SECONDS_PER_HOUR = 60 * 60;
+
+    private final ZoneRules zoneRules;
+
+    public WeatherDtoMapper() {
+        this(ZoneId.systemDefault());
+    }
+
+    WeatherDtoMapper(ZoneId zoneId) {
+        this.zoneRules = zoneId.getRules();
+    }
+
+    public WeatherDto toWeatherDto(WeatherApiResponse weatherApiResponse) {
+        Weather weather = weatherApiResponse.getWeatherList().get(0);
+        Main main = weatherApiResponse.getMain();
+        Wind wind = weatherApiResponse.getWind();
+        WeatherApiResponse.Sys sys = weatherApiResponse.getSys();
+
+        return WeatherDto.builder()
+                .weatherCondition(WeatherCondition.getWeatherConditionForCode(weather.getId()))
+                .timeOfDay(TimeOfDay.getTimeOfDayForTime(weatherApiResponse.getDate()))
+                .description(weather.getDescription())
+                .temperature(main.getTemperature())
+                .temperatureFeelsLike(main.getTemperatureFeelsLike())
+                .temperatureMinimum(main.getTemperatureMinimal())
+                .temperatureMaximum(main.getTemperatureMaximum())
+                .humidity(main.getHumidity())
+                .pressure(main.getPressure())
+                .windSpeed(wind.getSpeed())
+                .windDirection(wind.getDeg())
+                .windGust(wind.getGust())
+                .cloudiness(weatherApiResponse.getClouds().getCloudiness())
+                .date(toDate(weatherApiResponse.getDate()))
+                .sunrise(toDate(sys.getSunriseTime()))
+                .sunset(toDate(sys.getSunsetTime()))
+                .build();
+    }
+
+    public WeatherDto toStaleWeatherDto(WeatherApiResponse weatherApiResponse) {
+        WeatherDto weatherDto = toWeatherDto(weatherApiResponse);
+        weatherDto.setStale(true);
+        return weatherDto;
+    }
+
+    public WeatherDto toMissingWeatherDto() {
+        return WeatherDto.builder()
+                .weatherCondition(WeatherCondition.UNDEFINED)
+                .timeOfDay(TimeOfDay.UNDEFINED)
+                .description("weather is temporarily unavailable")
+                .build();
+    }
+
+    public WeatherDto toWeatherDto(ForecastApiResponse forecast, int slot) {
+        long timestamp = forecast.getTimestamp(slot);
+        float temperature = forecast.getTemperature(slot);
+
+        return WeatherDto.builder()
+                .date(new Date(timestamp * 1000))
+                .description(forecast.getDescription(slot))
+                .temperature(Float.isNaN(temperature) ? null : (double) temperature)
+                .timeOfDay(getTimeOfDay(timestamp))
+                .weatherCondition(WeatherCondition.getWeatherConditionForCode(forecast.getWeatherCode(slot)))
+                .build();
+    }
+
+    private Date toDate(LocalDateTime dateTime) {
+        long epochSecond = dateTime.toEpochSecond(zoneRules.getOffset(dateTime));
+        return new Date(epochSecond * 1000 + dateTime.getNano() / 1_000_000);
+    }
+
+    private TimeOfDay getTimeOfDay(long timestamp) {
+        int offsetSeconds = zoneRules.getOffset(Instant.ofEpochSecond(timestamp)).getTotalSeconds();
+        int hour = (int) (Math.floorMod(timestamp + offsetSeconds, SECONDS_PER_DAY) / SECONDS_PER_HOUR);
+        return TimeOfDay.getTimeOfDayForHour(hour);
+    }
+}
@@ -0,0 +1,181 @@
+package pet.project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import pet.project.dao.LocationDao;
+import pet.project.model.Location;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.api.WeatherApiResponse;
+import pet.project.service.api.CallPriority;
+import pet.project.service.cache.CachedForecast;
+import pet.project.service.cache.ForecastCache;
+import pet.project.service.cache.LocationKey;
+import pet.project.service.cache.LocationPopularity;
+import pet.project.service.cache.TtlCache;
+import pet.project.util.CacheUtil;
+import pet.project.util.PersistenceUtil;
+import pet.project.util.ScheduledTask;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+@Slf4j
+public class WeatherRefreshService {
+    // Entries expiring within this window are refreshed ahead of the first request that needs them
+    private static final Duration REFRESH_AHEAD = Duration.ofMinutes(2);
+    private static final Duration PLANNING_INTERVAL = Duration.ofMinutes(1);
+    private static final long CALL_TIMEOUT_SECONDS = 15;
+
+    private final LocationDao locationDao;
+    private final WeatherApiService weatherApiService;
+    private final TtlCache<LocationKey, WeatherApiResponse> weatherCache;
+    private final ForecastCache forecastCache;
+    private final ForecastService forecastService;
+    private final LocationPopularity locationPopularity;
+    private final LongSupplier nanoTicker;
+
+    // Accessed only from the scheduler thread
+    private final Queue<PendingRefresh> pendingRefreshes = new ArrayDeque<>();
+    private long lastPlanningNanos;
+    private boolean isPlanned;
+
+    private final ScheduledTask refreshTask = new ScheduledTask("weather-refresh", this::refreshNext);
+
+    public WeatherRefreshService() {
+        this(
+                new LocationDao(),
+                new WeatherApiService(CallPriority.BACKGROUND),
+                CacheUtil.getWeatherCache(),
+                CacheUtil.getForecastCache(),
+                new ForecastService(),
+                CacheUtil.getLocationPopularity(),
+                System::nanoTime
+        );
+    }
+
+    WeatherRefreshService(LocationDao locationDao, WeatherApiService weatherApiService,
+                          TtlCache<LocationKey, WeatherApiResponse> weatherCache, ForecastCache forecastCache,
+                          ForecastService forecastService, LocationPopularity locationPopularity, LongSupplier nanoTicker) {
+        this.locationDao = locationDao;
+        this.weatherApiService = weatherApiService;
+        this.weatherCache = weatherCache;
+        this.forecastCache = forecastCache;
+        this.forecastService = forecastService;
+        this.locationPopularity = locationPopularity;
+        this.nanoTicker = nanoTicker;
+    }
+
+    public synchronized void start(int callsPerMinute) {
+        if (callsPerMinute <= 0) {
+            log.info("Background weather refresh is disabled");
+            return;
+        }
+
+        // One upstream call per tick keeps the refresh within the budget, the delay is counted from the end
+        // of the call, so ticks missed during a slow call are not run back to back afterwards
+        Duration tick = Duration.ofMillis(TimeUnit.MINUTES.toMillis(1) / callsPerMinute);
+        refreshTask.start(tick, tick);
+
+        log.info("Background weather refresh is started: " + callsPerMinute + " calls per minute");
+    }
+
+    public synchronized void stop() {
+        if (!refreshTask.isStarted()) {
+            return;
+        }
+
+        refreshTask.stop();
+
+        log.info("Background weather refresh is stopped");
+    }
+
+    // Plan is rebuilt every interval even if the queue is not drained, so a location that became popular
+    // or started expiring moves ahead instead of waiting behind the leftovers of the previous plan
+    void refreshNext() {
+        if (isPlanningDue()) {
+            planRefreshes();
+        }
+
+        // Entry refreshed meanwhile, e.g. by a page view, is skipped without spending a call
+        PendingRefresh refresh;
+        while ((refresh = pendingRefreshes.poll()) != null) {
+            if (refresh.isDue.getAsBoolean()) {
+                refresh.refresh.run();
+                return;
+            }
+        }
+    }
+
+    int getPendingCount() {
+        return pendingRefreshes.size();
+    }
+
+    private boolean isPlanningDue() {
+        return !isPlanned || nanoTicker.getAsLong() - lastPlanningNanos >= PLANNING_INTERVAL.toNanos();
+    }
+
+    // Replaces the previous plan, every cache entry is queued at most once
+    private void planRefreshes() {
+        isPlanned = true;
+        lastPlanningNanos = nanoTicker.getAsLong();
+
+        Map<Location, Long> subscriberCounts = PersistenceUtil.inUnitOfWork(locationDao::findTrackedWithSubscriberCount);
+
+        List<Location> locations = new ArrayList<>(subscriberCounts.keySet());
+        locations.sort(Comparator.comparingLong(
+                (Location location) -> subscriberCounts.get(location) + locationPopularity.getRecentViews(location)
+        ).reversed());
+
+        locationPopularity.decay();
+
+        pendingRefreshes.clear();
+        for (Location location : locations) {
+            BooleanSupplier isWeatherDue = () -> weatherCache.expiresWithin(LocationKey.of(location), REFRESH_AHEAD);
+            if (isWeatherDue.getAsBoolean()) {
+                pendingRefreshes.add(new PendingRefresh(isWeatherDue, () -> refreshWeather(location)));
+            }
+
+            BooleanSupplier isForecastDue = () -> forecastCache.expiresWithin(location, REFRESH_AHEAD);
+            if (isForecastDue.getAsBoolean()) {
+                pendingRefreshes.add(new PendingRefresh(isForecastDue, () -> refreshForecast(location)));
+            }
+        }
+
+        log.info("Planned background refresh: " + pendingRefreshes.size() + " calls for " + locations.size() + " tracked locations");
+    }
+
+    private void refreshWeather(Location location) {
+        weatherApiService.refreshWeatherForLocationAsync(location)
+                .orTimeout(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .join();
+    }
+
+    private void refreshForecast(Location location) {
+        ForecastApiResponse forecastForLocation = weatherApiService.getForecastForLocationAsync(location)
+                .orTimeout(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .join();
+
+        forecastCache.put(location, new CachedForecast(
+                forecastForLocation,
+                forecastService.getHourlyForecast(forecastForLocation),
+                forecastService.getDailyForecast(forecastForLocation)
+        ));
+    }
+
+    private static final class PendingRefresh {
+        private final BooleanSupplier isDue;
+        private final Runnable refresh;
+
+        private PendingRefresh(BooleanSupplier isDue, Runnable refresh) {
+            this.isDue = isDue;
+            this.refresh = refresh;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package pet.project.service.api;
+
+import java.time.Duration;
+
+// Declared from the highest priority to the lowest
+public enum CallPriority {
+    INTERACTIVE(Duration.ofSeconds(3), 200),
+    SEARCH(Duration.ofSeconds(3), 100),
+    BACKGROUND(Duration.ofSeconds(30), 50);
+
+    private final Duration deadline;
+    private final int queueLimit;
+
+    CallPriority(Duration deadline, int queueLimit) {
+        this.deadline = deadline;
+        this.queueLimit = queueLimit;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    public int getQueueLimit() {
+        return queueLimit;
+    }
+}
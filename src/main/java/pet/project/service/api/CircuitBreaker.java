@@ -0,0 +1,197 @@
+package pet.project.service.api;
+
+import lombok.extern.slf4j.Slf4j;
+import pet.project.exception.api.CircuitOpenException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Trips on the share of failed or slow calls among the recent ones, after a wait one real call is let through as a trial
+@Slf4j
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long slowCallNanos;
+    private final long openWaitNanos;
+    private final Predicate<Throwable> isFailure;
+    private final LongSupplier nanoTime;
+
+    // Outcomes of the recent calls, true is failed or slow
+    private final boolean[] window;
+    private int windowPosition;
+    private int windowCount;
+    private int failureCount;
+
+    private volatile State state = State.CLOSED;
+    private long openedAtNanos;
+    private boolean isTrialInFlight;
+    // Changes with every state, so an outcome of a call started in an earlier state is ignored
+    private long generation;
+
+    private final LongAdder openedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    // Errors not matched by isFailure, e.g. a rejected client request, prove the upstream is up and count as successes
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, Duration slowCallThreshold, Duration openWait,
+                          Predicate<Throwable> isFailure) {
+        this(windowSize, minimumCalls, failureRatePercent, slowCallThreshold, openWait, isFailure, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, Duration slowCallThreshold, Duration openWait,
+                   Predicate<Throwable> isFailure, LongSupplier nanoTime) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openWaitNanos = openWait.toNanos();
+        this.isFailure = isFailure;
+        this.nanoTime = nanoTime;
+    }
+
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        return execute(() -> CompletableFuture.completedFuture(null), call);
+    }
+
+    // Admission, e.g. a rate limiter token, is awaited only after the circuit lets the call through, so a rejected call spends no budget
+    public <T> CompletableFuture<T> execute(Supplier<? extends CompletableFuture<?>> admission, Supplier<CompletableFuture<T>> call) {
+        long callGeneration;
+        synchronized (this) {
+            if (!tryAcquirePermission()) {
+                rejectedCount.increment();
+                return CompletableFuture.failedFuture(new CircuitOpenException("Upstream is unavailable, circuit is open"));
+            }
+            callGeneration = generation;
+        }
+
+        CompletableFuture<?> admitted;
+        try {
+            admitted = admission.get();
+        } catch (RuntimeException e) {
+            admitted = CompletableFuture.failedFuture(e);
+        }
+
+        return admitted
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        releaseTrial(callGeneration);
+                    }
+                })
+                .thenCompose(ignored -> call(call, callGeneration));
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getOpenedCount() {
+        return openedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    private <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> call, long callGeneration) {
+        long startNanos = nanoTime.getAsLong();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        return result.whenComplete((value, throwable) -> {
+            boolean isFailed = throwable != null && isFailure.test(throwable)
+                    || nanoTime.getAsLong() - startNanos > slowCallNanos;
+            record(isFailed, callGeneration);
+        });
+    }
+
+    private boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoTime.getAsLong() - openedAtNanos < openWaitNanos) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+                isTrialInFlight = true;
+                return true;
+            default:
+                // Only one trial at a time, the others are rejected until its outcome is known
+                if (isTrialInFlight) {
+                    return false;
+                }
+                isTrialInFlight = true;
+                return true;
+        }
+    }
+
+    // Trial that never reached the upstream, e.g. its admission was refused, leaves the slot to the next call
+    private synchronized void releaseTrial(long callGeneration) {
+        if (callGeneration == generation && state == State.HALF_OPEN) {
+            isTrialInFlight = false;
+        }
+    }
+
+    private synchronized void record(boolean isFailed, long callGeneration) {
+        if (callGeneration != generation) {
+            return;
+        }
+
+        if (state == State.HALF_OPEN) {
+            isTrialInFlight = false;
+            if (isFailed) {
+                open();
+            } else {
+                transitionTo(State.CLOSED);
+                log.info("Circuit is closed, upstream has recovered");
+            }
+            return;
+        }
+
+        if (windowCount == window.length) {
+            if (window[windowPosition]) {
+                failureCount--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowPosition] = isFailed;
+        if (isFailed) {
+            failureCount++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+
+        if (windowCount >= minimumCalls && failureCount * 100 >= failureRatePercent * windowCount) {
+            open();
+        }
+    }
+
+    private void open() {
+        transitionTo(State.OPEN);
+        openedAtNanos = nanoTime.getAsLong();
+        openedCount.increment();
+
+        log.warn("Circuit is open, upstream calls are rejected until a trial call succeeds");
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        windowPosition = 0;
+        windowCount = 0;
+        failureCount = 0;
+    }
+}
@@ -0,0 +1,217 @@
+package pet.project.service.api;
+
+import pet.project.exception.api.RateLimitExceededException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token bucket shared by all upstream calls, waiting calls are served strictly by priority
+public class RateLimiter {
+    private final int capacity;
+    private final double tokensPerNano;
+    private final ScheduledExecutorService dispatcher;
+
+    private final Map<CallPriority, Deque<Waiter>> waiters = new EnumMap<>(CallPriority.class);
+    private final Map<CallPriority, LongAdder> grantedCounts = new EnumMap<>(CallPriority.class);
+    private final Map<CallPriority, LongAdder> rejectedCounts = new EnumMap<>(CallPriority.class);
+    private final Map<CallPriority, LongAdder> expiredCounts = new EnumMap<>(CallPriority.class);
+
+    private double tokens;
+    private long lastRefillNanos;
+    private boolean isDispatchScheduled;
+    private boolean isShutdown;
+
+    public RateLimiter(int callsPerMinute, int capacity) {
+        if (callsPerMinute <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Calls per minute and capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = callsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (CallPriority priority : CallPriority.values()) {
+            waiters.put(priority, new ArrayDeque<>());
+            grantedCounts.put(priority, new LongAdder());
+            rejectedCounts.put(priority, new LongAdder());
+            expiredCounts.put(priority, new LongAdder());
+        }
+    }
+
+    public synchronized CompletableFuture<Void> acquire(CallPriority priority) {
+        if (isShutdown) {
+            rejectedCounts.get(priority).increment();
+            return CompletableFuture.failedFuture(new RateLimitExceededException("Upstream calls are shut down"));
+        }
+
+        refill();
+
+        // Tokens are taken directly only when nobody is waiting, otherwise queued calls would be overtaken
+        if (tokens >= 1 && !hasWaiters()) {
+            tokens -= 1;
+            grantedCounts.get(priority).increment();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Deque<Waiter> queue = waiters.get(priority);
+
+        if (queue.size() >= priority.getQueueLimit()) {
+            rejectedCounts.get(priority).increment();
+            return CompletableFuture.failedFuture(new RateLimitExceededException(
+                    "Upstream call queue is full for priority " + priority));
+        }
+
+        Waiter waiter = new Waiter(priority, System.nanoTime() + priority.getDeadline().toNanos());
+        queue.add(waiter);
+        scheduleDispatch();
+
+        return waiter.future;
+    }
+
+    // Queued calls are failed instead of waiting for a dispatcher that never runs again
+    public void shutdown() {
+        List<Waiter> rejected = new ArrayList<>();
+
+        synchronized (this) {
+            if (isShutdown) {
+                return;
+            }
+            isShutdown = true;
+            dispatcher.shutdownNow();
+
+            for (Deque<Waiter> queue : waiters.values()) {
+                rejected.addAll(queue);
+                queue.clear();
+            }
+        }
+
+        for (Waiter waiter : rejected) {
+            rejectedCounts.get(waiter.priority).increment();
+            waiter.future.completeExceptionally(new RateLimitExceededException("Upstream calls are shut down"));
+        }
+    }
+
+    public synchronized int getAvailableTokens() {
+        refill();
+        return (int) tokens;
+    }
+
+    public synchronized int getQueuedCount(CallPriority priority) {
+        return waiters.get(priority).size();
+    }
+
+    public long getGrantedCount(CallPriority priority) {
+        return grantedCounts.get(priority).sum();
+    }
+
+    public long getRejectedCount(CallPriority priority) {
+        return rejectedCounts.get(priority).sum();
+    }
+
+    public long getExpiredCount(CallPriority priority) {
+        return expiredCounts.get(priority).sum();
+    }
+
+    private void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        List<Waiter> expired = new ArrayList<>();
+
+        synchronized (this) {
+            isDispatchScheduled = false;
+            refill();
+
+            long now = System.nanoTime();
+            for (Deque<Waiter> queue : waiters.values()) {
+                queue.removeIf(waiter -> {
+                    if (now - waiter.deadlineNanos >= 0) {
+                        expired.add(waiter);
+                        return true;
+                    }
+                    return false;
+                });
+            }
+
+            for (Deque<Waiter> queue : waiters.values()) {
+                while (tokens >= 1 && !queue.isEmpty()) {
+                    tokens -= 1;
+                    granted.add(queue.poll());
+                }
+            }
+
+            if (hasWaiters()) {
+                scheduleDispatch();
+            }
+        }
+
+        // Completed outside the lock, the calls waiting on the futures start right here
+        for (Waiter waiter : expired) {
+            expiredCounts.get(waiter.priority).increment();
+            waiter.future.completeExceptionally(new RateLimitExceededException(
+                    "Upstream call deadline is exceeded for priority " + waiter.priority));
+        }
+        for (Waiter waiter : granted) {
+            grantedCounts.get(waiter.priority).increment();
+            waiter.future.complete(null);
+        }
+    }
+
+    private void scheduleDispatch() {
+        if (isDispatchScheduled) {
+            return;
+        }
+        isDispatchScheduled = true;
+
+        long delayNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+
+        // Deadlines grow along each queue, so only the heads can expire first
+        long now = System.nanoTime();
+        for (Deque<Waiter> queue : waiters.values()) {
+            Waiter head = queue.peek();
+            if (head != null) {
+                delayNanos = Math.min(delayNanos, Math.max(0, head.deadlineNanos - now));
+            }
+        }
+
+        dispatcher.schedule(this::dispatch, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+
+    private boolean hasWaiters() {
+        for (Deque<Waiter> queue : waiters.values()) {
+            if (!queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Waiter {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final CallPriority priority;
+        private final long deadlineNanos;
+
+        private Waiter(CallPriority priority, long deadlineNanos) {
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package pet.project.service.api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlightCalls = new ConcurrentHashMap<>();
+
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> sharedResult = new CompletableFuture<>();
+        CompletableFuture<V> inFlightResult = inFlightCalls.putIfAbsent(key, sharedResult);
+
+        if (inFlightResult != null) {
+            coalescedCount.increment();
+            // Every caller gets its own copy, so a timeout or cancel of one caller does not affect the others
+            return inFlightResult.copy();
+        }
+
+        executedCount.increment();
+        try {
+            call.get().whenComplete((value, throwable) -> {
+                // Removed before completion, so callers arriving afterwards start a new call
+                inFlightCalls.remove(key, sharedResult);
+
+                if (throwable != null) {
+                    sharedResult.completeExceptionally(throwable);
+                } else {
+                    sharedResult.complete(value);
+                }
+            });
+
+        } catch (RuntimeException e) {
+            inFlightCalls.remove(key, sharedResult);
+            sharedResult.completeExceptionally(e);
+        }
+
+        return sharedResult.copy();
+    }
+
+    public int getInFlightCount() {
+        return inFlightCalls.size();
+    }
+
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+}
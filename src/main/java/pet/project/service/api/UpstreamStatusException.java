@@ -0,0 +1,19 @@
+package pet.project.service.api;
+
+// Non-successful response of the upstream, its status tells a failing upstream from a rejected request
+public class UpstreamStatusException extends RuntimeException {
+    private final int statusCode;
+
+    public UpstreamStatusException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isUpstreamFailure() {
+        return statusCode >= 500 || statusCode == 429;
+    }
+}
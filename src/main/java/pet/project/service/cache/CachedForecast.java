@@ -0,0 +1,23 @@
+package pet.project.service.cache;
+
+import lombok.Value;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.dto.WeatherDto;
+
+import java.util.List;
+
+// Dtos are built once per fetched forecast, every page view of the slot reuses them
+@Value
+public class CachedForecast {
+    ForecastApiResponse forecastApiResponse;
+
+    List<WeatherDto> hourlyForecast;
+
+    List<WeatherDto> dailyForecast;
+
+    public CachedForecast(ForecastApiResponse forecastApiResponse, List<WeatherDto> hourlyForecast, List<WeatherDto> dailyForecast) {
+        this.forecastApiResponse = forecastApiResponse;
+        this.hourlyForecast = List.copyOf(hourlyForecast);
+        this.dailyForecast = List.copyOf(dailyForecast);
+    }
+}
@@ -0,0 +1,68 @@
+package pet.project.service.cache;
+
+import pet.project.model.Location;
+import pet.project.model.api.ForecastApiResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+public class ForecastCache {
+    // OpenWeather publishes forecast in 3-hour slots
+    private static final Duration FORECAST_STEP = Duration.ofHours(3);
+
+    private final TtlCache<LocationKey, CachedForecast> cache;
+    private final Duration minimumTimeToLive;
+    private final Clock clock;
+
+    public ForecastCache(int maximumSize, Duration minimumTimeToLive) {
+        this(maximumSize, minimumTimeToLive, Clock.systemDefaultZone());
+    }
+
+    ForecastCache(int maximumSize, Duration minimumTimeToLive, Clock clock) {
+        this.cache = new TtlCache<>(maximumSize, FORECAST_STEP);
+        this.minimumTimeToLive = minimumTimeToLive;
+        this.clock = clock;
+    }
+
+    public Optional<CachedForecast> get(Location location) {
+        return cache.get(LocationKey.of(location));
+    }
+
+    public Optional<CachedForecast> getStale(Location location) {
+        return cache.getStale(LocationKey.of(location));
+    }
+
+    public void put(Location location, CachedForecast forecast) {
+        getTimeToLive(forecast.getForecastApiResponse())
+                .ifPresent(timeToLive -> cache.put(LocationKey.of(location), forecast, timeToLive));
+    }
+
+    public boolean expiresWithin(Location location, Duration duration) {
+        return cache.expiresWithin(LocationKey.of(location), duration);
+    }
+
+    public TtlCache<LocationKey, CachedForecast> getCache() {
+        return cache;
+    }
+
+    // Forecast is fresh until its first slot has passed, then the next publication is available
+    Optional<Duration> getTimeToLive(ForecastApiResponse forecastApiResponse) {
+        if (forecastApiResponse.size() == 0) {
+            return Optional.empty();
+        }
+
+        Instant now = clock.instant();
+        Instant nextSlot = Instant.ofEpochSecond(forecastApiResponse.getTimestamp(0));
+
+        if (!nextSlot.isAfter(now)) {
+            long passedSlots = Duration.between(nextSlot, now).dividedBy(FORECAST_STEP) + 1;
+            nextSlot = nextSlot.plus(FORECAST_STEP.multipliedBy(passedSlots));
+        }
+
+        Duration timeToLive = Duration.between(now, nextSlot);
+
+        return Optional.of(timeToLive.compareTo(minimumTimeToLive) < 0 ? minimumTimeToLive : timeToLive);
+    }
+}
@@ -0,0 +1,75 @@
+package pet.project.service.cache;
+
+import pet.project.model.api.LocationApiResponse;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class GeocodingCache {
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+    private static final Pattern WHITESPACES_AROUND_COMMA = Pattern.compile("\\s*,\\s*");
+    private static final Pattern COUNTRY_CODE = Pattern.compile("[a-z]{2}");
+
+    private final TtlCache<String, List<LocationApiResponse>> cache;
+    private final Duration emptyResultTimeToLive;
+    private final int resultLimit;
+
+    public GeocodingCache(int maximumSize, Duration timeToLive, Duration emptyResultTimeToLive, int resultLimit) {
+        this.cache = new TtlCache<>(maximumSize, timeToLive);
+        this.emptyResultTimeToLive = emptyResultTimeToLive;
+        this.resultLimit = resultLimit;
+    }
+
+    // "London ", "london" and "LONDON" are the same query for the geocoding api
+    public static String normalize(String query) {
+        String normalized = Normalizer.normalize(query, Normalizer.Form.NFKC)
+                .trim()
+                .toLowerCase(Locale.ROOT);
+        normalized = WHITESPACES.matcher(normalized).replaceAll(" ");
+        return WHITESPACES_AROUND_COMMA.matcher(normalized).replaceAll(",");
+    }
+
+    public Optional<List<LocationApiResponse>> get(String normalizedQuery) {
+        Optional<List<LocationApiResponse>> cachedLocations = cache.get(normalizedQuery);
+
+        if (cachedLocations.isPresent()) {
+            return cachedLocations;
+        }
+
+        return getFromCountryFreeQuery(normalizedQuery);
+    }
+
+    public void put(String normalizedQuery, List<LocationApiResponse> locations) {
+        if (locations.isEmpty()) {
+            cache.put(normalizedQuery, List.of(), emptyResultTimeToLive);
+        } else {
+            cache.put(normalizedQuery, List.copyOf(locations));
+        }
+    }
+
+    public TtlCache<String, List<LocationApiResponse>> getCache() {
+        return cache;
+    }
+
+    // "london,gb" is answered from the results of "london" when those were not truncated by the limit
+    private Optional<List<LocationApiResponse>> getFromCountryFreeQuery(String normalizedQuery) {
+        String[] queryParts = normalizedQuery.split(",");
+
+        if (queryParts.length != 2 || !COUNTRY_CODE.matcher(queryParts[1]).matches()) {
+            return Optional.empty();
+        }
+
+        String countryCode = queryParts[1];
+
+        return cache.get(queryParts[0])
+                .filter(locations -> locations.size() < resultLimit)
+                .map(locations -> locations.stream()
+                        .filter(location -> countryCode.equalsIgnoreCase(location.getCountry()))
+                        .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,19 @@
+package pet.project.service.cache;
+
+import lombok.Value;
+import pet.project.model.Location;
+import pet.project.model.dto.LocationDto;
+
+@Value
+public class LocationKey {
+    Double latitude;
+    Double longitude;
+
+    public static LocationKey of(Location location) {
+        return new LocationKey(location.getLatitude(), location.getLongitude());
+    }
+
+    public static LocationKey of(LocationDto location) {
+        return new LocationKey(location.getLatitude(), location.getLongitude());
+    }
+}
@@ -0,0 +1,38 @@
+package pet.project.service.cache;
+
+import pet.project.model.Location;
+import pet.project.model.dto.LocationDto;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LocationPopularity {
+    private final ConcurrentHashMap<LocationKey, AtomicLong> recentViews = new ConcurrentHashMap<>();
+
+    public void recordView(Location location) {
+        recordView(LocationKey.of(location));
+    }
+
+    public void recordView(LocationDto location) {
+        recordView(LocationKey.of(location));
+    }
+
+    public long getRecentViews(Location location) {
+        AtomicLong views = recentViews.get(LocationKey.of(location));
+        return views == null ? 0 : views.get();
+    }
+
+    // Halves every counter, so views from the past periods weigh less than the recent ones
+    public void decay() {
+        recentViews.forEach((key, views) -> {
+            if (views.updateAndGet(count -> count / 2) == 0) {
+                recentViews.remove(key, views);
+            }
+        });
+    }
+
+    private void recordView(LocationKey key) {
+        recentViews.computeIfAbsent(key, ignored -> new AtomicLong())
+                .incrementAndGet();
+    }
+}
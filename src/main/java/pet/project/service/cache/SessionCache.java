@@ -0,0 +1,49 @@
+package pet.project.service.cache;
+
+import pet.project.model.Session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public class SessionCache {
+    private final TtlCache<UUID, Session> cache;
+    private final Duration maximumTimeToLive;
+    private final Clock clock;
+
+    public SessionCache(int maximumSize, Duration maximumTimeToLive) {
+        this(maximumSize, maximumTimeToLive, Clock.systemDefaultZone());
+    }
+
+    SessionCache(int maximumSize, Duration maximumTimeToLive, Clock clock) {
+        this.cache = new TtlCache<>(maximumSize, maximumTimeToLive);
+        this.maximumTimeToLive = maximumTimeToLive;
+        this.clock = clock;
+    }
+
+    public Optional<Session> get(UUID sessionId) {
+        return cache.get(sessionId);
+    }
+
+    // Entry never outlives the session, so an expired session always goes back to the database check
+    public void put(UUID sessionId, Session session) {
+        Duration untilExpiry = Duration.between(LocalDateTime.now(clock), session.getExpiresAt());
+
+        if (untilExpiry.isNegative() || untilExpiry.isZero()) {
+            cache.invalidate(sessionId);
+            return;
+        }
+
+        cache.put(sessionId, session, untilExpiry.compareTo(maximumTimeToLive) < 0 ? untilExpiry : maximumTimeToLive);
+    }
+
+    public void invalidate(UUID sessionId) {
+        cache.invalidate(sessionId);
+    }
+
+    public TtlCache<UUID, Session> getCache() {
+        return cache;
+    }
+}
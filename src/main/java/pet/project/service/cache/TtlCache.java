@@ -0,0 +1,209 @@
+package pet.project.service.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class TtlCache<K, V> {
+    private static final int INVALIDATION_STRIPES = 64;
+    private static final long ANY_STAMP = -1;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Keys in insertion order, the oldest entries are evicted first when the cache is full. Invalidation
+    // leaves the queued key behind, it is dropped lazily as it no longer matches the generation of an entry
+    private final Queue<QueuedKey<K>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicInteger staleQueuedKeyCount = new AtomicInteger();
+    // Invalidations counted per stripe of keys, so memory stays fixed, a collision only skips a put
+    private final AtomicLongArray invalidationStamps = new AtomicLongArray(INVALIDATION_STRIPES);
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoTicker;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public TtlCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, System::nanoTime);
+    }
+
+    TtlCache(int maximumSize, Duration timeToLive, LongSupplier nanoTicker) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoTicker = nanoTicker;
+    }
+
+    public Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry == null || isExpired(entry)) {
+            missCount.increment();
+            return Optional.empty();
+        }
+
+        hitCount.increment();
+        return Optional.of(entry.value);
+    }
+
+    // Expired entries are kept until overwritten or evicted, so they can be served when the upstream is down
+    public Optional<V> getStale(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null ? Optional.empty() : Optional.of(entry.value);
+    }
+
+    public void put(K key, V value) {
+        put(key, value, timeToLiveNanos);
+    }
+
+    public void put(K key, V value, Duration timeToLive) {
+        put(key, value, timeToLive.toNanos());
+    }
+
+    // Taken before the value is loaded, so the load can be put only if the key is not invalidated meanwhile
+    public long getInvalidationStamp(K key) {
+        return invalidationStamps.get(stripeOf(key));
+    }
+
+    // Value loaded before a concurrent invalidation may already be stale, it is dropped instead of cached
+    public boolean putIfNotInvalidated(K key, V value, long invalidationStamp) {
+        return put(key, value, timeToLiveNanos, invalidationStamp);
+    }
+
+    private void put(K key, V value, long timeToLiveNanos) {
+        put(key, value, timeToLiveNanos, ANY_STAMP);
+    }
+
+    private boolean put(K key, V value, long timeToLiveNanos, long invalidationStamp) {
+        long expiresAtNanos = nanoTicker.getAsLong() + timeToLiveNanos;
+        long newGeneration = generation.incrementAndGet();
+        boolean[] isPut = new boolean[1];
+
+        // Overwritten entry keeps its generation and so its place in the queue, a key is queued once per insertion.
+        // Stamp is checked under the lock of the key, invalidate bumps it before removing the entry under the same lock
+        Entry<V> entry = entries.compute(key, (ignored, current) -> {
+            if (invalidationStamp != ANY_STAMP && invalidationStamps.get(stripeOf(key)) != invalidationStamp) {
+                return current;
+            }
+            isPut[0] = true;
+            return new Entry<>(value, expiresAtNanos, current == null ? newGeneration : current.generation);
+        });
+
+        if (entry != null && entry.generation == newGeneration) {
+            insertionOrder.add(new QueuedKey<>(key, newGeneration));
+            evictIfNeeded();
+        }
+        return isPut[0];
+    }
+
+    // Does not count as a hit or a miss, used to find entries to refresh ahead of expiry
+    public boolean expiresWithin(K key, Duration duration) {
+        Entry<V> entry = entries.get(key);
+        return entry == null || entry.expiresAtNanos - nanoTicker.getAsLong() <= duration.toNanos();
+    }
+
+    // Constant time, the queued key is left behind and purged once there are as many stale keys as entries fit
+    public void invalidate(K key) {
+        invalidationStamps.incrementAndGet(stripeOf(key));
+
+        if (entries.remove(key) != null && staleQueuedKeyCount.incrementAndGet() > maximumSize) {
+            purgeStaleQueuedKeys();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private static int stripeOf(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (INVALIDATION_STRIPES - 1);
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return nanoTicker.getAsLong() - entry.expiresAtNanos >= 0;
+    }
+
+    int getQueuedKeyCount() {
+        return insertionOrder.size();
+    }
+
+    private void evictIfNeeded() {
+        while (entries.size() > maximumSize) {
+            QueuedKey<K> oldest = insertionOrder.poll();
+
+            if (oldest == null) {
+                return;
+            }
+            if (removeIfQueued(oldest)) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    // Entry inserted again after an invalidation has a newer generation, the old queued key must not evict it
+    private boolean removeIfQueued(QueuedKey<K> queuedKey) {
+        boolean[] isRemoved = new boolean[1];
+        entries.computeIfPresent(queuedKey.key, (ignored, entry) -> {
+            if (entry.generation != queuedKey.generation) {
+                return entry;
+            }
+            isRemoved[0] = true;
+            return null;
+        });
+        return isRemoved[0];
+    }
+
+    private void purgeStaleQueuedKeys() {
+        staleQueuedKeyCount.set(0);
+        insertionOrder.removeIf(queuedKey -> {
+            Entry<V> entry = entries.get(queuedKey.key);
+            return entry == null || entry.generation != queuedKey.generation;
+        });
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+        private final long generation;
+
+        private Entry(V value, long expiresAtNanos, long generation) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+            this.generation = generation;
+        }
+    }
+
+    private static class QueuedKey<K> {
+        private final K key;
+        private final long generation;
+
+        private QueuedKey(K key, long generation) {
+            this.key = key;
+            this.generation = generation;
+        }
+    }
+}
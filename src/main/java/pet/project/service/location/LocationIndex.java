@@ -0,0 +1,207 @@
+package pet.project.service.location;
+
+import pet.project.model.dto.LocationDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Grid of fixed cells over latitude and longitude, like a geohash of one precision, a cell is as high as the match radius
+public class LocationIndex {
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+    private final double matchRadiusMeters;
+    private final double cellDegrees;
+    private final int latitudeCellCount;
+    private final int longitudeCellCount;
+
+    private final ConcurrentHashMap<Long, LocationDto> locationsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<LocationDto>> locationsByCell = new ConcurrentHashMap<>();
+    private final LongAdder matchCount = new LongAdder();
+
+    public LocationIndex(double matchRadiusMeters) {
+        if (matchRadiusMeters <= 0) {
+            throw new IllegalArgumentException("Match radius must be positive");
+        }
+
+        this.matchRadiusMeters = matchRadiusMeters;
+        this.cellDegrees = matchRadiusMeters / METERS_PER_DEGREE;
+        this.latitudeCellCount = (int) Math.ceil(180 / cellDegrees) + 1;
+        this.longitudeCellCount = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    // Writes are rare compared to the lookups, they are serialized to keep both maps in step
+    public synchronized void add(LocationDto location) {
+        remove(location.getId());
+
+        locationsById.put(location.getId(), location);
+        locationsByCell.computeIfAbsent(cellOf(location.getLatitude(), location.getLongitude()), key -> ConcurrentHashMap.newKeySet())
+                .add(location);
+    }
+
+    public synchronized void addAll(Collection<LocationDto> locations) {
+        locations.forEach(this::add);
+    }
+
+    public synchronized void remove(Long id) {
+        LocationDto location = locationsById.remove(id);
+        if (location == null) {
+            return;
+        }
+
+        long cell = cellOf(location.getLatitude(), location.getLongitude());
+        locationsByCell.computeIfPresent(cell, (key, locations) -> {
+            locations.remove(location);
+            return locations.isEmpty() ? null : locations;
+        });
+    }
+
+    public Optional<LocationDto> findNearest(double latitude, double longitude) {
+        Optional<LocationDto> nearest = findNearest(latitude, longitude, matchRadiusMeters);
+        if (nearest.isPresent()) {
+            matchCount.increment();
+        }
+        return nearest;
+    }
+
+    public Optional<LocationDto> findNearest(double latitude, double longitude, double radiusMeters) {
+        double radiusDegrees = radiusMeters / METERS_PER_DEGREE;
+        int latitudeRing = (int) Math.ceil(radiusDegrees / cellDegrees);
+        int longitudeRing = getLongitudeRing(latitude, radiusDegrees);
+
+        int latitudeCell = latitudeCellOf(latitude);
+        int longitudeCell = longitudeCellOf(longitude);
+
+        LocationDto nearest = null;
+        double nearestMeters = radiusMeters;
+
+        for (int latitudeOffset = -latitudeRing; latitudeOffset <= latitudeRing; latitudeOffset++) {
+            int currentLatitudeCell = latitudeCell + latitudeOffset;
+            if (currentLatitudeCell < 0 || currentLatitudeCell >= latitudeCellCount) {
+                continue;
+            }
+
+            for (int longitudeOffset = -longitudeRing; longitudeOffset <= longitudeRing; longitudeOffset++) {
+                // Ring wraps around the antimeridian
+                int currentLongitudeCell = Math.floorMod(longitudeCell + longitudeOffset, longitudeCellCount);
+                Set<LocationDto> locations = locationsByCell.get(cellKey(currentLatitudeCell, currentLongitudeCell));
+                if (locations == null) {
+                    continue;
+                }
+
+                for (LocationDto location : locations) {
+                    double meters = distanceMeters(latitude, longitude, location.getLatitude(), location.getLongitude());
+                    if (meters <= nearestMeters) {
+                        nearest = location;
+                        nearestMeters = meters;
+                    }
+                }
+            }
+        }
+
+        return Optional.ofNullable(nearest);
+    }
+
+    // Box with the minimum longitude greater than the maximum one crosses the antimeridian
+    public List<LocationDto> findWithin(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        int fromLatitudeCell = latitudeCellOf(Math.max(-90, minLatitude));
+        int toLatitudeCell = latitudeCellOf(Math.min(90, maxLatitude));
+        int fromLongitudeCell = longitudeCellOf(minLongitude);
+        int longitudeCellSpan = Math.floorMod(longitudeCellOf(maxLongitude) - fromLongitudeCell, longitudeCellCount) + 1;
+        if (minLongitude > maxLongitude && longitudeCellSpan == 1) {
+            longitudeCellSpan = longitudeCellCount;
+        }
+
+        List<LocationDto> found = new ArrayList<>();
+
+        // Large box has more cells than there are locations, then a scan of all of them is cheaper
+        long cellCount = (long) (toLatitudeCell - fromLatitudeCell + 1) * longitudeCellSpan;
+        if (cellCount > locationsById.size()) {
+            for (LocationDto location : locationsById.values()) {
+                if (isWithin(location, minLatitude, minLongitude, maxLatitude, maxLongitude)) {
+                    found.add(location);
+                }
+            }
+            return found;
+        }
+
+        for (int latitudeCell = fromLatitudeCell; latitudeCell <= toLatitudeCell; latitudeCell++) {
+            for (int offset = 0; offset < longitudeCellSpan; offset++) {
+                int longitudeCell = (fromLongitudeCell + offset) % longitudeCellCount;
+                Set<LocationDto> locations = locationsByCell.get(cellKey(latitudeCell, longitudeCell));
+                if (locations == null) {
+                    continue;
+                }
+
+                for (LocationDto location : locations) {
+                    if (isWithin(location, minLatitude, minLongitude, maxLatitude, maxLongitude)) {
+                        found.add(location);
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    public int size() {
+        return locationsById.size();
+    }
+
+    public long getMatchCount() {
+        return matchCount.sum();
+    }
+
+    // Degree of longitude shrinks towards the poles, so the ring is widened by the latitude farthest from the equator
+    private int getLongitudeRing(double latitude, double radiusDegrees) {
+        double farthestLatitude = Math.min(90, Math.abs(latitude) + radiusDegrees);
+        double cosine = Math.cos(Math.toRadians(farthestLatitude));
+
+        // Near a pole the ring covers the whole circle of latitude
+        return Math.min(longitudeCellCount / 2, (int) Math.ceil(radiusDegrees / (cellDegrees * cosine)));
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return cellKey(latitudeCellOf(latitude), longitudeCellOf(longitude));
+    }
+
+    private long cellKey(int latitudeCell, int longitudeCell) {
+        return (long) latitudeCell * longitudeCellCount + longitudeCell;
+    }
+
+    private int latitudeCellOf(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int longitudeCellOf(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), longitudeCellCount);
+    }
+
+    private static boolean isWithin(LocationDto location, double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        if (location.getLatitude() < minLatitude || location.getLatitude() > maxLatitude) {
+            return false;
+        }
+
+        if (minLongitude <= maxLongitude) {
+            return location.getLongitude() >= minLongitude && location.getLongitude() <= maxLongitude;
+        }
+        return location.getLongitude() >= minLongitude || location.getLongitude() <= maxLongitude;
+    }
+
+    // Haversine distance, precise enough for the match radius of a city weather
+    private static double distanceMeters(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double latitudeDelta = Math.toRadians(toLatitude - fromLatitude);
+        double longitudeDelta = Math.toRadians(toLongitude - fromLongitude);
+
+        double a = Math.sin(latitudeDelta / 2) * Math.sin(latitudeDelta / 2)
+                + Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude))
+                * Math.sin(longitudeDelta / 2) * Math.sin(longitudeDelta / 2);
+
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
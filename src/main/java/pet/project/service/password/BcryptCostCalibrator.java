@@ -0,0 +1,48 @@
+package pet.project.service.password;
+
+import com.password4j.BcryptFunction;
+import com.password4j.Password;
+
+import java.time.Duration;
+import java.util.function.IntToLongFunction;
+
+// Every cost step doubles the bcrypt work, so one measured cost is enough to find the one meeting the target
+public class BcryptCostCalibrator {
+    public static final int MIN_COST = 10;
+    public static final int MAX_COST = 16;
+
+    private static final int MEASURED_COST = MIN_COST;
+    private static final int MEASUREMENT_COUNT = 5;
+
+    public static int calibrate(Duration targetLatency) {
+        return calibrate(targetLatency, BcryptCostCalibrator::measureHashNanos);
+    }
+
+    // Highest cost whose hashing still fits into the target latency
+    static int calibrate(Duration targetLatency, IntToLongFunction hashNanosAtCost) {
+        long fastestNanos = Long.MAX_VALUE;
+
+        // First runs include the warm-up of the jit, the fastest run is the closest to the steady state
+        for (int i = 0; i < MEASUREMENT_COUNT; i++) {
+            fastestNanos = Math.min(fastestNanos, hashNanosAtCost.applyAsLong(MEASURED_COST));
+        }
+
+        double ratio = targetLatency.toNanos() / (double) Math.max(1, fastestNanos);
+        int extraCost = (int) Math.floor(Math.log(ratio) / Math.log(2));
+
+        return Math.max(MIN_COST, Math.min(MAX_COST, MEASURED_COST + extraCost));
+    }
+
+    // Cost is a part of the bcrypt hash itself, e.g. $2b$12$...
+    public static int getCost(String hash) {
+        return BcryptFunction.getInstanceFromHash(hash).getLogarithmicRounds();
+    }
+
+    private static long measureHashNanos(int cost) {
+        BcryptFunction bcryptFunction = BcryptFunction.getInstance(cost);
+
+        long startNanos = System.nanoTime();
+        Password.hash("calibration-password").with(bcryptFunction);
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -0,0 +1,121 @@
+package pet.project.service.password;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Limits password checks per login name: a few concurrent checks, then a lockout after repeated failures
+public class LoginThrottle {
+    // Logins without checks in flight are purged above this size, so a scan of many names stays bounded
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final int maxConcurrentChecks;
+    private final int maxFailures;
+    private final Duration failureWindow;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, Attempts> attemptsByLogin = new ConcurrentHashMap<>();
+    private final LongAdder throttledCount = new LongAdder();
+
+    public LoginThrottle(int maxConcurrentChecks, int maxFailures, Duration failureWindow) {
+        this(maxConcurrentChecks, maxFailures, failureWindow, Clock.systemUTC());
+    }
+
+    LoginThrottle(int maxConcurrentChecks, int maxFailures, Duration failureWindow, Clock clock) {
+        if (maxConcurrentChecks <= 0 || maxFailures <= 0) {
+            throw new IllegalArgumentException("Concurrent checks and failures must be positive");
+        }
+
+        this.maxConcurrentChecks = maxConcurrentChecks;
+        this.maxFailures = maxFailures;
+        this.failureWindow = failureWindow;
+        this.clock = clock;
+    }
+
+    public boolean tryAcquire(String login) {
+        if (attemptsByLogin.size() > PURGE_THRESHOLD) {
+            purgeIdle();
+        }
+
+        boolean[] isAcquired = new boolean[1];
+        attemptsByLogin.compute(login, (key, attempts) -> {
+            if (attempts == null) {
+                attempts = new Attempts();
+            }
+            attempts.resetExpiredFailures(clock.millis(), failureWindow.toMillis());
+
+            if (attempts.inFlightCount < maxConcurrentChecks && attempts.failureCount < maxFailures) {
+                attempts.inFlightCount++;
+                isAcquired[0] = true;
+            }
+            return attempts;
+        });
+
+        if (!isAcquired[0]) {
+            throttledCount.increment();
+        }
+        return isAcquired[0];
+    }
+
+    // Check that did not run, e.g. rejected by the executor, counts neither as success nor as failure
+    public void release(String login) {
+        attemptsByLogin.computeIfPresent(login, (key, attempts) -> {
+            attempts.inFlightCount--;
+            return attempts.isIdle() ? null : attempts;
+        });
+    }
+
+    // Success forgets the failures, an entry without failures and checks in flight is removed
+    public void release(String login, boolean isSucceeded) {
+        attemptsByLogin.computeIfPresent(login, (key, attempts) -> {
+            attempts.inFlightCount--;
+
+            if (isSucceeded) {
+                attempts.failureCount = 0;
+            } else {
+                if (attempts.failureCount == 0) {
+                    attempts.firstFailureMillis = clock.millis();
+                }
+                attempts.failureCount++;
+            }
+
+            return attempts.isIdle() ? null : attempts;
+        });
+    }
+
+    public int getTrackedCount() {
+        return attemptsByLogin.size();
+    }
+
+    public long getThrottledCount() {
+        return throttledCount.sum();
+    }
+
+    private void purgeIdle() {
+        long now = clock.millis();
+        long failureWindowMillis = failureWindow.toMillis();
+
+        attemptsByLogin.forEach((login, ignored) -> attemptsByLogin.computeIfPresent(login, (key, attempts) -> {
+            attempts.resetExpiredFailures(now, failureWindowMillis);
+            return attempts.isIdle() ? null : attempts;
+        }));
+    }
+
+    // Guarded by the map entry, it is changed only inside compute
+    private static class Attempts {
+        private int inFlightCount;
+        private int failureCount;
+        private long firstFailureMillis;
+
+        private boolean isIdle() {
+            return inFlightCount == 0 && failureCount == 0;
+        }
+
+        private void resetExpiredFailures(long now, long failureWindowMillis) {
+            if (failureCount > 0 && now - firstFailureMillis >= failureWindowMillis) {
+                failureCount = 0;
+            }
+        }
+    }
+}
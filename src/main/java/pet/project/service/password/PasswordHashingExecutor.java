@@ -0,0 +1,129 @@
+package pet.project.service.password;
+
+import pet.project.exception.authentication.PasswordHashingRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bcrypt is CPU bound, so it runs on as many threads as there are cores instead of on every request thread
+public class PasswordHashingExecutor {
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder timedOutCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder hashingNanos = new LongAdder();
+
+    public PasswordHashingExecutor(int threadCount, int queueLimit, Duration timeout) {
+        if (threadCount <= 0 || queueLimit <= 0) {
+            throw new IllegalArgumentException("Thread count and queue limit must be positive");
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threadCount,
+                threadCount,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.timeout = timeout;
+    }
+
+    // Full queue is rejected at once, a queued task that is not done in time is dropped before it starts
+    public <T> T execute(Callable<T> hashing) throws PasswordHashingRejectedException {
+        long submittedNanos = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startNanos = System.nanoTime();
+                waitNanos.add(startNanos - submittedNanos);
+                try {
+                    return hashing.call();
+                } finally {
+                    hashingNanos.add(System.nanoTime() - startNanos);
+                    completedCount.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new PasswordHashingRejectedException("Too many sign-in requests, please try again later");
+        }
+
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            timedOutCount.increment();
+            throw new PasswordHashingRejectedException("Too many sign-in requests, please try again later");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Sign-in request is interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Hashing in progress is short, so it is let to finish, later calls are rejected as with a full queue
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOutCount.sum();
+    }
+
+    public long getWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+    }
+
+    public long getHashingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(hashingNanos.sum());
+    }
+}
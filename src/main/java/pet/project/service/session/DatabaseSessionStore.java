@@ -0,0 +1,111 @@
+package pet.project.service.session;
+
+import pet.project.dao.SessionDao;
+import pet.project.model.Session;
+import pet.project.model.User;
+import pet.project.service.cache.SessionCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+// Cookie holds a random session id, the session itself is a row in the sessions table
+public class DatabaseSessionStore implements SessionStore {
+    private final SessionDao sessionDao;
+    private final SessionCache sessionCache;
+    private final SessionRenewals sessionRenewals;
+    private final Duration sessionDuration;
+    private final Duration renewalThreshold;
+
+    // Sessions are never renewed, they expire after the fixed duration
+    public DatabaseSessionStore(SessionDao sessionDao, SessionCache sessionCache, Duration sessionDuration) {
+        this(sessionDao, sessionCache, new SessionRenewals(), sessionDuration, Duration.ZERO);
+    }
+
+    public DatabaseSessionStore(SessionDao sessionDao, SessionCache sessionCache, SessionRenewals sessionRenewals,
+                                Duration sessionDuration, Duration renewalThreshold) {
+        this.sessionDao = sessionDao;
+        this.sessionCache = sessionCache;
+        this.sessionRenewals = sessionRenewals;
+        this.sessionDuration = sessionDuration;
+        this.renewalThreshold = renewalThreshold;
+    }
+
+    @Override
+    public Session createSession(User user) {
+        Session session = new Session(UUID.randomUUID(), user, LocalDateTime.now().plus(sessionDuration));
+        sessionDao.save(session);
+        sessionCache.put(session.getId(), session);
+
+        return session;
+    }
+
+    @Override
+    public String getCookieValue(Session session) {
+        return session.getId().toString();
+    }
+
+    // Database is consulted only on a cache miss, cached entries expire together with the session
+    @Override
+    public Optional<Session> findActiveSession(String cookieValue) {
+        Optional<UUID> sessionId = parseSessionId(cookieValue);
+        if (sessionId.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Optional<Session> session = sessionCache.get(sessionId.get());
+        if (session.isEmpty()) {
+            session = sessionDao.findById(sessionId.get()).map(found -> applyPendingRenewal(sessionId.get(), found));
+
+            if (session.isEmpty() || LocalDateTime.now().isAfter(session.get().getExpiresAt())) {
+                return Optional.empty();
+            }
+
+            sessionCache.put(sessionId.get(), session.get());
+        }
+
+        return Optional.of(renewIfDue(sessionId.get(), session.get()));
+    }
+
+    @Override
+    public void deleteSession(String cookieValue, Session session) {
+        parseSessionId(cookieValue).ifPresent(sessionId -> {
+            sessionCache.invalidate(sessionId);
+            sessionRenewals.discard(sessionId);
+        });
+        sessionDao.delete(session);
+    }
+
+    // Only a session close to its expiry is extended, so an active user causes a write once per threshold
+    private Session renewIfDue(UUID sessionId, Session session) {
+        LocalDateTime now = LocalDateTime.now();
+        Duration untilExpiry = Duration.between(now, session.getExpiresAt());
+
+        if (untilExpiry.isNegative() || untilExpiry.compareTo(renewalThreshold) >= 0) {
+            return session;
+        }
+
+        Session renewedSession = new Session(sessionId, session.getUser(), now.plus(sessionDuration));
+        sessionRenewals.record(sessionId, renewedSession.getExpiresAt());
+        sessionCache.put(sessionId, renewedSession);
+
+        return renewedSession;
+    }
+
+    // Row still holds the old expiry until the renewal is flushed
+    private Session applyPendingRenewal(UUID sessionId, Session session) {
+        return sessionRenewals.getPendingExpiry(sessionId)
+                .filter(expiresAt -> expiresAt.isAfter(session.getExpiresAt()))
+                .map(expiresAt -> new Session(sessionId, session.getUser(), expiresAt))
+                .orElse(session);
+    }
+
+    private static Optional<UUID> parseSessionId(String cookieValue) {
+        try {
+            return Optional.of(UUID.fromString(cookieValue));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package pet.project.service.session;
+
+import lombok.extern.slf4j.Slf4j;
+import pet.project.dao.SessionDao;
+import pet.project.util.PersistenceUtil;
+import pet.project.util.ScheduledTask;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Purges expired sessions continuously in small batches instead of one large delete a day
+@Slf4j
+public class SessionExpiryService {
+    private final SessionDao sessionDao;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Clock clock;
+
+    private final AtomicLong purgedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong batchNanos = new AtomicLong();
+    private final AtomicLong lastBatchNanos = new AtomicLong();
+    private final AtomicLong backlog = new AtomicLong();
+
+    private final ScheduledTask purgeTask = new ScheduledTask(
+            "session-expiry",
+            () -> PersistenceUtil.inUnitOfWork(this::purgeExpired)
+    );
+    private volatile Duration interval;
+
+    public SessionExpiryService(int batchSize, int maxBatchesPerRun) {
+        this(new SessionDao(), batchSize, maxBatchesPerRun, Clock.systemDefaultZone());
+    }
+
+    SessionExpiryService(SessionDao sessionDao, int batchSize, int maxBatchesPerRun, Clock clock) {
+        if (batchSize <= 0 || maxBatchesPerRun <= 0) {
+            throw new IllegalArgumentException("Batch size and batches per run must be positive");
+        }
+
+        this.sessionDao = sessionDao;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.clock = clock;
+    }
+
+    public synchronized void start(Duration interval) {
+        if (interval.isZero() || interval.isNegative()) {
+            log.info("Session expiry is disabled");
+            return;
+        }
+
+        this.interval = interval;
+        purgeTask.start(nextDelayMillis(), this::nextDelayMillis);
+
+        log.info("Session expiry is started: up to " + maxBatchesPerRun + " batches of " + batchSize + " every " + interval);
+    }
+
+    public synchronized void stop() {
+        if (!purgeTask.isStarted()) {
+            return;
+        }
+
+        purgeTask.stop();
+
+        log.info("Session expiry is stopped");
+    }
+
+    public long getPurgedCount() {
+        return purgedCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getBatchMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(batchNanos.get());
+    }
+
+    public long getLastBatchMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastBatchNanos.get());
+    }
+
+    public long getFailedRunCount() {
+        return purgeTask.getFailedRunCount();
+    }
+
+    public long getBacklog() {
+        return backlog.get();
+    }
+
+    void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            long startNanos = System.nanoTime();
+            int deletedCount = sessionDao.deleteSessionsExpiredAtTime(now, batchSize);
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            purgedCount.addAndGet(deletedCount);
+            batchCount.incrementAndGet();
+            batchNanos.addAndGet(elapsedNanos);
+            lastBatchNanos.set(elapsedNanos);
+
+            // Short batch means nothing expired is left
+            if (deletedCount < batchSize) {
+                backlog.set(0);
+                return;
+            }
+        }
+
+        // Run budget is exhausted, the rest is left to the next runs
+        backlog.set(sessionDao.countSessionsExpiredAtTime(now));
+        log.info("Session expiry backlog: " + backlog.get() + " sessions");
+    }
+
+    // Jitter keeps the nodes of a cluster from purging the same rows at the same moment
+    private long nextDelayMillis() {
+        long intervalMillis = interval.toMillis();
+        long jitterMillis = ThreadLocalRandom.current().nextLong(intervalMillis / 5 + 1);
+
+        return intervalMillis + jitterMillis;
+    }
+}
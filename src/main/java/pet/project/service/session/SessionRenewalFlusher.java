@@ -0,0 +1,117 @@
+package pet.project.service.session;
+
+import lombok.extern.slf4j.Slf4j;
+import pet.project.dao.SessionDao;
+import pet.project.util.PersistenceUtil;
+import pet.project.util.ScheduledTask;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Writes the renewed expiries behind the requests, one update statement per batch
+@Slf4j
+public class SessionRenewalFlusher {
+    private final SessionDao sessionDao;
+    private final SessionRenewals sessionRenewals;
+    private final int batchSize;
+
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong batchNanos = new AtomicLong();
+
+    private final ScheduledTask flushTask = new ScheduledTask(
+            "session-renewal-flush",
+            () -> PersistenceUtil.inUnitOfWork(this::flush)
+    );
+
+    public SessionRenewalFlusher(SessionRenewals sessionRenewals, int batchSize) {
+        this(new SessionDao(), sessionRenewals, batchSize);
+    }
+
+    SessionRenewalFlusher(SessionDao sessionDao, SessionRenewals sessionRenewals, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        this.sessionDao = sessionDao;
+        this.sessionRenewals = sessionRenewals;
+        this.batchSize = batchSize;
+    }
+
+    public synchronized void start(Duration interval) {
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+
+        flushTask.start(interval, interval);
+
+        log.info("Session renewal flush is started: every " + interval);
+    }
+
+    // Renewals still pending on shutdown are written before the context goes away
+    public synchronized void stop() {
+        if (!flushTask.isStarted()) {
+            return;
+        }
+
+        flushTask.stop();
+        flushTask.runSafely();
+
+        log.info("Session renewal flush is stopped");
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getBatchMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(batchNanos.get());
+    }
+
+    public long getFailedFlushCount() {
+        return flushTask.getFailedRunCount();
+    }
+
+    void flush() {
+        Map<UUID, LocalDateTime> pendingExpiries = sessionRenewals.drain();
+        if (pendingExpiries.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<UUID, LocalDateTime>> entries = new ArrayList<>(pendingExpiries.entrySet());
+
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            Map<UUID, LocalDateTime> batch = new HashMap<>();
+            for (Map.Entry<UUID, LocalDateTime> entry : entries.subList(from, Math.min(from + batchSize, entries.size()))) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+
+            try {
+                long startNanos = System.nanoTime();
+                sessionDao.updateSessionExpiries(batch);
+                batchNanos.addAndGet(System.nanoTime() - startNanos);
+
+                flushedCount.addAndGet(batch.size());
+                batchCount.incrementAndGet();
+            } catch (RuntimeException e) {
+                // Rest of the drained entries go back as well, they are retried by the next flush
+                for (Map.Entry<UUID, LocalDateTime> entry : entries.subList(from, entries.size())) {
+                    batch.put(entry.getKey(), entry.getValue());
+                }
+                sessionRenewals.requeue(batch);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package pet.project.service.session;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Extended expiries waiting to be written to the sessions table, the latest expiry of a session wins
+public class SessionRenewals {
+    private final ConcurrentHashMap<UUID, LocalDateTime> pendingExpiries = new ConcurrentHashMap<>();
+    private final AtomicLong renewedCount = new AtomicLong();
+
+    public void record(UUID sessionId, LocalDateTime expiresAt) {
+        pendingExpiries.merge(sessionId, expiresAt, SessionRenewals::later);
+        renewedCount.incrementAndGet();
+    }
+
+    public Optional<LocalDateTime> getPendingExpiry(UUID sessionId) {
+        return Optional.ofNullable(pendingExpiries.get(sessionId));
+    }
+
+    public void discard(UUID sessionId) {
+        pendingExpiries.remove(sessionId);
+    }
+
+    // Entry renewed again while draining stays pending for the next flush
+    public Map<UUID, LocalDateTime> drain() {
+        Map<UUID, LocalDateTime> drained = new HashMap<>();
+
+        for (UUID sessionId : pendingExpiries.keySet()) {
+            LocalDateTime expiresAt = pendingExpiries.get(sessionId);
+            if (expiresAt != null && pendingExpiries.remove(sessionId, expiresAt)) {
+                drained.put(sessionId, expiresAt);
+            }
+        }
+
+        return drained;
+    }
+
+    // Failed flush gives the entries back, a renewal recorded meanwhile is kept if it is later
+    public void requeue(Map<UUID, LocalDateTime> expiries) {
+        expiries.forEach((sessionId, expiresAt) -> pendingExpiries.merge(sessionId, expiresAt, SessionRenewals::later));
+    }
+
+    public int getPendingCount() {
+        return pendingExpiries.size();
+    }
+
+    public long getRenewedCount() {
+        return renewedCount.get();
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        return second.isAfter(first) ? second : first;
+    }
+}
@@ -0,0 +1,109 @@
+package pet.project.service.session;
+
+import lombok.extern.slf4j.Slf4j;
+import pet.project.dao.RevokedSessionDao;
+import pet.project.model.RevokedSession;
+import pet.project.util.PersistenceUtil;
+import pet.project.util.ScheduledTask;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Signed-out token sessions are written to the revoked_sessions table shared by all the nodes,
+// every node checks its own copy on verify and pulls the rows of the other nodes on each sync
+@Slf4j
+public class SessionRevocations {
+    // Rows written shortly before the previous sync, e.g. by a node with a clock behind, are read again
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedSessionDao revokedSessionDao;
+    private final Duration sessionDuration;
+    private final Clock clock;
+
+    // Session id -> expiry in epoch seconds
+    private final Map<UUID, Long> revokedSessions = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastSyncAt;
+
+    private final ScheduledTask syncTask = new ScheduledTask(
+            "session-revocation-sync",
+            () -> PersistenceUtil.inUnitOfWork(this::sync)
+    );
+
+    public SessionRevocations(Duration sessionDuration) {
+        this(new RevokedSessionDao(), sessionDuration, Clock.systemDefaultZone());
+    }
+
+    SessionRevocations(RevokedSessionDao revokedSessionDao, Duration sessionDuration, Clock clock) {
+        this.revokedSessionDao = revokedSessionDao;
+        this.sessionDuration = sessionDuration;
+        this.clock = clock;
+    }
+
+    // Stored first, so the sign-out fails rather than be forgotten by the other nodes and by a restart
+    public void revoke(UUID sessionId, LocalDateTime expiresAt) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        PersistenceUtil.inUnitOfWork(() -> revokedSessionDao.save(new RevokedSession(sessionId, now, expiresAt)));
+
+        revokedSessions.put(sessionId, toEpochSecond(expiresAt));
+    }
+
+    public boolean isRevoked(UUID sessionId) {
+        return revokedSessions.containsKey(sessionId);
+    }
+
+    public int getRevokedCount() {
+        return revokedSessions.size();
+    }
+
+    public long getFailedSyncCount() {
+        return syncTask.getFailedRunCount();
+    }
+
+    // First sync loads every revocation that may still match an unexpired token, so a restart forgets none
+    public synchronized void start(Duration interval) {
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Sync interval must be positive");
+        }
+
+        syncTask.start(Duration.ZERO, interval);
+
+        log.info("Session revocation sync is started: every " + interval);
+    }
+
+    public synchronized void stop() {
+        if (!syncTask.isStarted()) {
+            return;
+        }
+
+        syncTask.stop();
+
+        log.info("Session revocation sync is stopped");
+    }
+
+    void sync() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime since = lastSyncAt == null ? now.minus(sessionDuration) : lastSyncAt.minus(SYNC_OVERLAP);
+
+        List<RevokedSession> revoked = revokedSessionDao.findRevokedSince(since);
+        for (RevokedSession revokedSession : revoked) {
+            revokedSessions.put(revokedSession.getId(), toEpochSecond(revokedSession.getExpiresAt()));
+        }
+
+        // Revocation only has to outlive the token, expired tokens are rejected by their own expiry
+        long nowEpochSecond = clock.instant().getEpochSecond();
+        revokedSessions.values().removeIf(expiresAt -> expiresAt < nowEpochSecond);
+        revokedSessionDao.deleteExpiredAtTime(now);
+
+        lastSyncAt = now;
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
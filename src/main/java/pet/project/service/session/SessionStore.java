@@ -0,0 +1,17 @@
+package pet.project.service.session;
+
+import pet.project.model.Session;
+import pet.project.model.User;
+
+import java.util.Optional;
+
+// Where sessions live and how they are carried in the sessionId cookie
+public interface SessionStore {
+    Session createSession(User user);
+
+    String getCookieValue(Session session);
+
+    Optional<Session> findActiveSession(String cookieValue);
+
+    void deleteSession(String cookieValue, Session session);
+}
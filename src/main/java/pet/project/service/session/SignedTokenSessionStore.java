@@ -0,0 +1,121 @@
+package pet.project.service.session;
+
+import lombok.extern.slf4j.Slf4j;
+import pet.project.model.Session;
+import pet.project.model.User;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+// Cookie carries the whole session: <session id>.<user id>.<expiry epoch seconds>.<login>.<hmac>,
+// login and hmac are base64url encoded. Verifying it needs no database, signed-out sessions are checked
+// against the local copy of the shared revocations.
+@Slf4j
+public class SignedTokenSessionStore implements SessionStore {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration sessionDuration;
+    private final SessionRevocations sessionRevocations;
+    private final Clock clock;
+
+    public SignedTokenSessionStore(byte[] secret, Duration sessionDuration, SessionRevocations sessionRevocations) {
+        this(secret, sessionDuration, sessionRevocations, Clock.systemDefaultZone());
+    }
+
+    SignedTokenSessionStore(byte[] secret, Duration sessionDuration, SessionRevocations sessionRevocations, Clock clock) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("Session token secret must be at least 32 bytes");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.sessionDuration = sessionDuration;
+        this.sessionRevocations = sessionRevocations;
+        this.clock = clock;
+    }
+
+    @Override
+    public Session createSession(User user) {
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(clock.instant().plus(sessionDuration), ZoneId.systemDefault())
+                .withNano(0);
+        return new Session(UUID.randomUUID(), user, expiresAt);
+    }
+
+    @Override
+    public String getCookieValue(Session session) {
+        User user = session.getUser();
+        long expiresAt = session.getExpiresAt().atZone(ZoneId.systemDefault()).toEpochSecond();
+
+        String payload = session.getId() + "." + user.getId() + "." + expiresAt + "."
+                + ENCODER.encodeToString(user.getLogin().getBytes(StandardCharsets.UTF_8));
+
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    @Override
+    public Optional<Session> findActiveSession(String cookieValue) {
+        int signatureStart = cookieValue.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return Optional.empty();
+        }
+
+        String payload = cookieValue.substring(0, signatureStart);
+        String[] fields = payload.split("\\.");
+        if (fields.length != 4) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] signature = DECODER.decode(cookieValue.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return Optional.empty();
+            }
+
+            UUID sessionId = UUID.fromString(fields[0]);
+            long userId = Long.parseLong(fields[1]);
+            long expiresAt = Long.parseLong(fields[2]);
+            String login = new String(DECODER.decode(fields[3]), StandardCharsets.UTF_8);
+
+            if (clock.instant().getEpochSecond() > expiresAt || sessionRevocations.isRevoked(sessionId)) {
+                return Optional.empty();
+            }
+
+            // User is rebuilt from the token, only id and login are known without the database
+            User user = new User(userId, login, null);
+            LocalDateTime expiresAtTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(expiresAt), ZoneId.systemDefault());
+
+            return Optional.of(new Session(sessionId, user, expiresAtTime));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Malformed session token: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void deleteSession(String cookieValue, Session session) {
+        sessionRevocations.revoke(session.getId(), session.getExpiresAt());
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Session token signing is unavailable", e);
+        }
+    }
+}
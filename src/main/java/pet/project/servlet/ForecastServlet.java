@@ -7,29 +7,34 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import pet.project.dao.LocationDao;
-import pet.project.dao.SessionDao;
 import pet.project.exception.CookieNotFoundException;
 import pet.project.exception.InvalidParameterException;
 import pet.project.exception.LocationNotFoundException;
 import pet.project.exception.SessionExpiredException;
+import pet.project.exception.api.ForecastApiCallException;
 import pet.project.model.Location;
 import pet.project.model.Session;
 import pet.project.model.api.ForecastApiResponse;
-import pet.project.model.dto.WeatherDto;
 import pet.project.service.ForecastService;
+import pet.project.service.SessionService;
 import pet.project.service.WeatherApiService;
+import pet.project.service.cache.CachedForecast;
+import pet.project.service.cache.ForecastCache;
+import pet.project.service.cache.LocationPopularity;
+import pet.project.util.CacheUtil;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
 
 @Slf4j
 @WebServlet("/forecast")
 public class ForecastServlet extends WeatherTrackerBaseServlet {
-    private final SessionDao sessionDao = new SessionDao();
+    private final SessionService sessionService = new SessionService();
     private final LocationDao locationDao = new LocationDao();
     private final WeatherApiService weatherApiService = new WeatherApiService();
     private final ForecastService forecastService = new ForecastService();
+    private final ForecastCache forecastCache = CacheUtil.getForecastCache();
+    private final LocationPopularity locationPopularity = CacheUtil.getLocationPopularity();
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
@@ -38,15 +43,9 @@ public class ForecastServlet extends WeatherTrackerBaseServlet {
         Cookie cookie = findCookieByName(cookies, "sessionId")
                 .orElseThrow(() -> new CookieNotFoundException("Cookie with session id is not found"));
 
-        UUID sessionId = UUID.fromString(cookie.getValue());
-
-        log.info("Finding session: " + sessionId);
-        Session session = sessionDao.findById(sessionId)
-                .orElseThrow(() -> new SessionExpiredException("Session: " + sessionId + " has expired"));
-
-        if (isSessionExpired(session)) {
-            throw new SessionExpiredException("Session: " + sessionId + " has expired");
-        }
+        log.info("Finding session");
+        Session session = sessionService.findActiveSession(cookie.getValue())
+                .orElseThrow(() -> new SessionExpiredException("Session has expired"));
 
         String locationParam = req.getParameter("locationId");
 
@@ -60,16 +59,46 @@ public class ForecastServlet extends WeatherTrackerBaseServlet {
         Location location = locationDao.findById(locationId)
                 .orElseThrow(() -> new LocationNotFoundException("Location: " + locationId + " is not found"));
 
-        ForecastApiResponse forecastForLocation = weatherApiService.getForecastForLocation(location);
+        locationPopularity.recordView(location);
+
+        Optional<CachedForecast> cachedForecast = forecastCache.get(location);
+        boolean isStale = false;
+        CachedForecast forecast;
+
+        if (cachedForecast.isPresent()) {
+            forecast = cachedForecast.get();
+        } else {
+            try {
+                forecast = loadForecast(location);
 
-        List<WeatherDto> hourlyForecast = forecastService.getHourlyForecast(forecastForLocation);
-        List<WeatherDto> dailyForecast = forecastService.getDailyForecast(forecastForLocation);
+            } catch (ForecastApiCallException e) {
+                // Last known forecast is better than the error page while the upstream is down
+                log.warn(e.getMessage());
+                forecast = forecastCache.getStale(location).orElseThrow(() -> e);
+                isStale = true;
+            }
+        }
 
         context.setVariable("login", session.getUser().getLogin());
         context.setVariable("locationName", location.getName());
-        context.setVariable("hourlyForecast", hourlyForecast);
-        context.setVariable("dailyForecast", dailyForecast);
+        context.setVariable("hourlyForecast", forecast.getHourlyForecast());
+        context.setVariable("dailyForecast", forecast.getDailyForecast());
+        context.setVariable("isStale", isStale);
 
         templateEngine.process("forecast", context, resp.getWriter());
     }
+
+    private CachedForecast loadForecast(Location location) throws ForecastApiCallException {
+        log.info("Calling openweather forecast API for location: " + location.getId());
+        ForecastApiResponse forecastForLocation = weatherApiService.getForecastForLocation(location);
+
+        CachedForecast forecast = new CachedForecast(
+                forecastForLocation,
+                forecastService.getHourlyForecast(forecastForLocation),
+                forecastService.getDailyForecast(forecastForLocation)
+        );
+        forecastCache.put(location, forecast);
+
+        return forecast;
+    }
 }
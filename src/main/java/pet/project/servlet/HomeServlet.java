@@ -6,32 +6,43 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import pet.project.dao.LocationDao;
-import pet.project.dao.SessionDao;
 import pet.project.exception.CookieNotFoundException;
 import pet.project.exception.InvalidParameterException;
 import pet.project.exception.LocationNotFoundException;
 import pet.project.exception.SessionExpiredException;
 import pet.project.exception.api.WeatherApiCallException;
-import pet.project.model.Location;
 import pet.project.model.Session;
 import pet.project.model.User;
 import pet.project.model.api.WeatherApiResponse;
-import pet.project.model.api.entity.Weather;
+import pet.project.model.dto.LocationDto;
 import pet.project.model.dto.WeatherDto;
-import pet.project.model.dto.enums.TimeOfDay;
-import pet.project.model.dto.enums.WeatherCondition;
+import pet.project.service.SessionService;
 import pet.project.service.WeatherApiService;
+import pet.project.service.WeatherDtoMapper;
+import pet.project.service.cache.LocationPopularity;
+import pet.project.service.cache.TtlCache;
+import pet.project.util.CacheUtil;
 
 import java.io.IOException;
-import java.time.ZoneId;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @WebServlet("")
 public class HomeServlet extends WeatherTrackerBaseServlet {
-    private final SessionDao sessionDao = new SessionDao();
+    private static final int MAX_CONCURRENT_WEATHER_CALLS = 8;
+    private static final Duration WEATHER_CALL_TIMEOUT = Duration.ofSeconds(5);
+
+    private final SessionService sessionService = new SessionService();
     private final LocationDao locationDao = new LocationDao();
     private final WeatherApiService weatherApiService = new WeatherApiService();
+    private final WeatherDtoMapper weatherDtoMapper = new WeatherDtoMapper();
+    private final LocationPopularity locationPopularity = CacheUtil.getLocationPopularity();
+    private final TtlCache<Long, List<LocationDto>> userLocationsCache = CacheUtil.getUserLocationsCache();
+    private Duration weatherCallTimeout = WEATHER_CALL_TIMEOUT;
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException, CookieNotFoundException, SessionExpiredException, WeatherApiCallException {
@@ -40,29 +51,17 @@ public class HomeServlet extends WeatherTrackerBaseServlet {
         Cookie cookie = findCookieByName(cookies, "sessionId")
                 .orElseThrow(() -> new CookieNotFoundException("Cookie with session id is not found"));
 
-        UUID sessionId = UUID.fromString(cookie.getValue());
-
-        log.info("Finding session: " + sessionId);
-        Session session = sessionDao.findById(sessionId)
-                .orElseThrow(() -> new SessionExpiredException("Session: " + sessionId + " has expired"));
-
-        if (isSessionExpired(session)) {
-            throw new SessionExpiredException("Session: " + sessionId + " has expired");
-        }
+        log.info("Finding session");
+        Session session = sessionService.findActiveSession(cookie.getValue())
+                .orElseThrow(() -> new SessionExpiredException("Session has expired"));
 
         User user = session.getUser();
 
         log.info("Finding locations of user: " + user.getId());
-        List<Location> userLocations = locationDao.findByUser(user);
+        List<LocationDto> userLocations = findLocationsOfUser(user);
 
         log.info("Finding current weather for user locations");
-        Map<Location, WeatherDto> locationWeatherMap = new HashMap<>();
-
-        for (Location location : userLocations) {
-            WeatherApiResponse weather = weatherApiService.getWeatherForLocation(location);
-            WeatherDto weatherDto = buildWeatherDto(weather);
-            locationWeatherMap.put(location, weatherDto);
-        }
+        Map<LocationDto, WeatherDto> locationWeatherMap = getWeatherForLocations(userLocations);
 
         context.setVariable("locationWeatherMap", locationWeatherMap);
         context.setVariable("login", user.getLogin());
@@ -78,15 +77,9 @@ public class HomeServlet extends WeatherTrackerBaseServlet {
         Cookie cookie = findCookieByName(cookies, "sessionId")
                 .orElseThrow(() -> new CookieNotFoundException("Cookie with session id is not found"));
 
-        UUID sessionId = UUID.fromString(cookie.getValue());
-
-        log.info("Finding session: " + sessionId);
-        Session session = sessionDao.findById(sessionId)
-                .orElseThrow(() -> new SessionExpiredException("Session: " + sessionId + " has expired"));
-
-        if (isSessionExpired(session)) {
-            throw new SessionExpiredException("Session: " + sessionId + " has expired");
-        }
+        log.info("Finding session");
+        Session session = sessionService.findActiveSession(cookie.getValue())
+                .orElseThrow(() -> new SessionExpiredException("Session has expired"));
 
         User user = session.getUser();
 
@@ -98,39 +91,78 @@ public class HomeServlet extends WeatherTrackerBaseServlet {
 
         Long locationId = Long.parseLong(locationParam);
 
-        log.info("Finding location: " + locationId);
-        Location location = locationDao.findById(locationId)
-                .orElseThrow(() -> new LocationNotFoundException("Location: " + locationId + " is not found"));
-
         log.info("Deleting user: " + user.getId() + " from location: " + locationId);
-        List<User> users = location.getUsers();
-        users.remove(user);
-        location.setUsers(users);
-        locationDao.update(location);
+        // Missing location and location not tracked by the user both delete nothing
+        if (!locationDao.unsubscribe(locationId, user.getId())) {
+            throw new LocationNotFoundException("Location: " + locationId + " is not found");
+        }
+        userLocationsCache.invalidate(user.getId());
 
         log.info("Deleting is successful: refreshing home page");
         resp.sendRedirect(req.getContextPath());
     }
 
-    private static WeatherDto buildWeatherDto(WeatherApiResponse weatherApiResponse) {
-        Weather weather = weatherApiResponse.getWeatherList().get(0);
-        return WeatherDto.builder()
-                .weatherCondition(WeatherCondition.getWeatherConditionForCode(weather.getId()))
-                .timeOfDay(TimeOfDay.getTimeOfDayForTime(weatherApiResponse.getDate()))
-                .description(weather.getDescription())
-                .temperature(weatherApiResponse.getMain().getTemperature())
-                .temperatureFeelsLike(weatherApiResponse.getMain().getTemperatureFeelsLike())
-                .temperatureMinimum(weatherApiResponse.getMain().getTemperatureMinimal())
-                .temperatureMaximum(weatherApiResponse.getMain().getTemperatureMaximum())
-                .humidity(weatherApiResponse.getMain().getHumidity())
-                .pressure(weatherApiResponse.getMain().getPressure())
-                .windSpeed(weatherApiResponse.getWind().getSpeed())
-                .windDirection(weatherApiResponse.getWind().getDeg())
-                .windGust(weatherApiResponse.getWind().getGust())
-                .cloudiness(weatherApiResponse.getClouds().getCloudiness())
-                .date(Date.from(weatherApiResponse.getDate().atZone(ZoneId.systemDefault()).toInstant()))
-                .sunrise(Date.from(weatherApiResponse.getSys().getSunriseTime().atZone(ZoneId.systemDefault()).toInstant()))
-                .sunset(Date.from(weatherApiResponse.getSys().getSunsetTime().atZone(ZoneId.systemDefault()).toInstant()))
-                .build();
+    private List<LocationDto> findLocationsOfUser(User user) {
+        // Subscription changed while the locations are read invalidates the cache, the read is then not cached
+        long invalidationStamp = userLocationsCache.getInvalidationStamp(user.getId());
+
+        Optional<List<LocationDto>> cachedLocations = userLocationsCache.get(user.getId());
+        if (cachedLocations.isPresent()) {
+            return cachedLocations.get();
+        }
+
+        List<LocationDto> locations = locationDao.findDtosByUserId(user.getId());
+        userLocationsCache.putIfNotInvalidated(user.getId(), locations, invalidationStamp);
+        return locations;
+    }
+
+    private Map<LocationDto, WeatherDto> getWeatherForLocations(List<LocationDto> locations) throws WeatherApiCallException {
+        // Calls are issued concurrently, but no more than MAX_CONCURRENT_WEATHER_CALLS at once per page
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_WEATHER_CALLS);
+        List<CompletableFuture<WeatherDto>> weatherFutures = new ArrayList<>(locations.size());
+
+        try {
+            for (LocationDto location : locations) {
+                locationPopularity.recordView(location);
+                permits.acquire();
+
+                // Call that throws instead of returning a failed future still gives its permit back
+                CompletableFuture<WeatherApiResponse> weatherCall;
+                try {
+                    weatherCall = weatherApiService.getWeatherForLocationAsync(location);
+                } catch (RuntimeException e) {
+                    weatherCall = CompletableFuture.failedFuture(e);
+                }
+
+                CompletableFuture<WeatherDto> weatherFuture = weatherCall
+                        .orTimeout(weatherCallTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .whenComplete((weather, throwable) -> permits.release())
+                        .handle((weather, throwable) -> {
+                            if (throwable == null) {
+                                return weatherDtoMapper.toWeatherDto(weather);
+                            }
+
+                            log.warn("Issues with calling api for location with id = " + location.getId() + ": " + throwable);
+                            return weatherApiService.getStaleWeatherForLocation(location)
+                                    .map(weatherDtoMapper::toStaleWeatherDto)
+                                    .orElseGet(weatherDtoMapper::toMissingWeatherDto);
+                        });
+
+                weatherFutures.add(weatherFuture);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherApiCallException("Finding current weather for user locations was interrupted");
+        }
+
+        // Original order of the locations is preserved
+        Map<LocationDto, WeatherDto> locationWeatherMap = new LinkedHashMap<>();
+
+        for (int i = 0; i < locations.size(); i++) {
+            locationWeatherMap.put(locations.get(i), weatherFutures.get(i).join());
+        }
+
+        return locationWeatherMap;
     }
 }
@@ -0,0 +1,201 @@
+package pet.project.servlet;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import pet.project.service.PasswordService;
+import pet.project.service.WeatherApiService;
+import pet.project.service.api.CallPriority;
+import pet.project.service.api.CircuitBreaker;
+import pet.project.service.api.RateLimiter;
+import pet.project.service.cache.TtlCache;
+import pet.project.service.location.LocationIndex;
+import pet.project.service.password.LoginThrottle;
+import pet.project.service.password.PasswordHashingExecutor;
+import pet.project.service.session.SessionExpiryService;
+import pet.project.service.session.SessionRenewalFlusher;
+import pet.project.service.session.SessionRenewals;
+import pet.project.service.session.SessionRevocations;
+import pet.project.util.CacheUtil;
+import pet.project.util.ConnectionPoolMetrics;
+import pet.project.util.EnvironmentUtil;
+import pet.project.util.PersistenceUtil;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.Map;
+
+// Plain text metrics in the prometheus exposition format
+@Slf4j
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // Scraper sends it as a bearer token, metrics are not served at all while it is not set
+    private String metricsToken = EnvironmentUtil.getString("METRICS_TOKEN", "");
+
+    @Override
+    public void init() {
+        if (metricsToken.isBlank()) {
+            log.warn("METRICS_TOKEN is not set: /metrics is disabled");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (metricsToken.isBlank()) {
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        if (!isAuthorized(req.getHeader("Authorization"))) {
+            resp.setHeader("WWW-Authenticate", "Bearer");
+            resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        resp.setContentType("text/plain; version=0.0.4");
+        PrintWriter writer = resp.getWriter();
+
+        writeCache(writer, "weather", CacheUtil.getWeatherCache());
+        writeCache(writer, "forecast", CacheUtil.getForecastCache().getCache());
+        writeCache(writer, "geocoding", CacheUtil.getGeocodingCache().getCache());
+        writeCache(writer, "session", CacheUtil.getSessionCache().getCache());
+        writeCache(writer, "user_locations", CacheUtil.getUserLocationsCache());
+
+        LocationIndex locationIndex = CacheUtil.getLocationIndex();
+        writeMetric(writer, "location_index_size", "", locationIndex.size());
+        writeMetric(writer, "location_index_matches_total", "", locationIndex.getMatchCount());
+
+        writeMetric(writer, "upstream_calls_executed_total", "", WeatherApiService.getExecutedCallCount());
+        writeMetric(writer, "upstream_calls_coalesced_total", "", WeatherApiService.getCoalescedCallCount());
+
+        for (Map.Entry<String, CircuitBreaker> entry : WeatherApiService.getCircuitBreakers().entrySet()) {
+            String labels = "{endpoint=\"" + entry.getKey() + "\"}";
+            CircuitBreaker circuitBreaker = entry.getValue();
+
+            writeMetric(writer, "circuit_breaker_open", labels, circuitBreaker.getState() == CircuitBreaker.State.OPEN ? 1 : 0);
+            writeMetric(writer, "circuit_breaker_half_open", labels, circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN ? 1 : 0);
+            writeMetric(writer, "circuit_breaker_opened_total", labels, circuitBreaker.getOpenedCount());
+            writeMetric(writer, "circuit_breaker_rejected_total", labels, circuitBreaker.getRejectedCount());
+        }
+
+        RateLimiter rateLimiter = WeatherApiService.getRateLimiter();
+        writeMetric(writer, "rate_limiter_available_tokens", "", rateLimiter.getAvailableTokens());
+
+        for (CallPriority priority : CallPriority.values()) {
+            String labels = "{priority=\"" + priority.name().toLowerCase(Locale.ROOT) + "\"}";
+
+            writeMetric(writer, "rate_limiter_queued", labels, rateLimiter.getQueuedCount(priority));
+            writeMetric(writer, "rate_limiter_granted_total", labels, rateLimiter.getGrantedCount(priority));
+            writeMetric(writer, "rate_limiter_rejected_total", labels, rateLimiter.getRejectedCount(priority));
+            writeMetric(writer, "rate_limiter_expired_total", labels, rateLimiter.getExpiredCount(priority));
+        }
+
+        ConnectionPoolMetrics connectionPool = PersistenceUtil.getConnectionPoolMetrics();
+        writeMetric(writer, "db_pool_active", "", connectionPool.getActiveCount());
+        writeMetric(writer, "db_pool_idle", "", connectionPool.getIdleCount());
+        writeMetric(writer, "db_pool_total", "", connectionPool.getTotalCount());
+        writeMetric(writer, "db_pool_waiting_threads", "", connectionPool.getWaitingThreadCount());
+        writeMetric(writer, "db_pool_acquired_total", "", connectionPool.getAcquiredCount());
+        writeMetric(writer, "db_pool_acquire_millis_total", "", connectionPool.getAcquireMillis());
+        writeMetric(writer, "db_pool_usage_millis_total", "", connectionPool.getUsageMillis());
+        writeMetric(writer, "db_pool_timeouts_total", "", connectionPool.getTimeoutCount());
+        writeMetric(writer, "db_pool_connections_created_total", "", connectionPool.getCreatedCount());
+
+        // Zero counters of disabled statistics would read as a cache that is never hit
+        Statistics statistics = PersistenceUtil.getStatistics();
+        if (statistics.isStatisticsEnabled()) {
+            writeCacheRegion(writer, statistics.getDomainDataRegionStatistics(PersistenceUtil.LOCATION_CACHE_REGION));
+            writeCacheRegion(writer, statistics.getDomainDataRegionStatistics(PersistenceUtil.USER_CACHE_REGION));
+            writeCacheRegion(writer, statistics.getQueryRegionStatistics(PersistenceUtil.LOCATION_BY_COORDINATES_CACHE_REGION));
+            writeMetric(writer, "db_queries_total", "", statistics.getQueryExecutionCount());
+            writeMetric(writer, "db_entity_loads_total", "", statistics.getEntityLoadCount());
+        }
+
+        PasswordHashingExecutor hashingExecutor = PasswordService.getHashingExecutor();
+        writeMetric(writer, "password_bcrypt_cost", "", PasswordService.getBcryptCost());
+        writeMetric(writer, "password_hashing_queued", "", hashingExecutor.getQueuedCount());
+        writeMetric(writer, "password_hashing_active", "", hashingExecutor.getActiveCount());
+        writeMetric(writer, "password_hashing_completed_total", "", hashingExecutor.getCompletedCount());
+        writeMetric(writer, "password_hashing_rejected_total", "", hashingExecutor.getRejectedCount());
+        writeMetric(writer, "password_hashing_timed_out_total", "", hashingExecutor.getTimedOutCount());
+        writeMetric(writer, "password_hashing_wait_millis_total", "", hashingExecutor.getWaitMillis());
+        writeMetric(writer, "password_hashing_millis_total", "", hashingExecutor.getHashingMillis());
+
+        LoginThrottle loginThrottle = PasswordService.getLoginThrottle();
+        writeMetric(writer, "login_throttle_tracked", "", loginThrottle.getTrackedCount());
+        writeMetric(writer, "login_throttle_rejected_total", "", loginThrottle.getThrottledCount());
+
+        // Absent in the token session mode
+        SessionExpiryService sessionExpiryService = (SessionExpiryService) getServletContext().getAttribute("sessionExpiryService");
+        if (sessionExpiryService != null) {
+            writeMetric(writer, "session_expiry_purged_total", "", sessionExpiryService.getPurgedCount());
+            writeMetric(writer, "session_expiry_batches_total", "", sessionExpiryService.getBatchCount());
+            writeMetric(writer, "session_expiry_batch_millis_total", "", sessionExpiryService.getBatchMillis());
+            writeMetric(writer, "session_expiry_last_batch_millis", "", sessionExpiryService.getLastBatchMillis());
+            writeMetric(writer, "session_expiry_failed_runs_total", "", sessionExpiryService.getFailedRunCount());
+            writeMetric(writer, "session_expiry_backlog", "", sessionExpiryService.getBacklog());
+        }
+
+        SessionRenewals sessionRenewals = CacheUtil.getSessionRenewals();
+        writeMetric(writer, "session_renewals_total", "", sessionRenewals.getRenewedCount());
+        writeMetric(writer, "session_renewals_pending", "", sessionRenewals.getPendingCount());
+
+        SessionRenewalFlusher sessionRenewalFlusher = (SessionRenewalFlusher) getServletContext().getAttribute("sessionRenewalFlusher");
+        if (sessionRenewalFlusher != null) {
+            writeMetric(writer, "session_renewal_flushed_total", "", sessionRenewalFlusher.getFlushedCount());
+            writeMetric(writer, "session_renewal_batches_total", "", sessionRenewalFlusher.getBatchCount());
+            writeMetric(writer, "session_renewal_batch_millis_total", "", sessionRenewalFlusher.getBatchMillis());
+            writeMetric(writer, "session_renewal_failed_flushes_total", "", sessionRenewalFlusher.getFailedFlushCount());
+        }
+
+        SessionRevocations sessionRevocations = (SessionRevocations) getServletContext().getAttribute("sessionRevocations");
+        if (sessionRevocations != null) {
+            writeMetric(writer, "session_revocations", "", sessionRevocations.getRevokedCount());
+            writeMetric(writer, "session_revocation_failed_syncs_total", "", sessionRevocations.getFailedSyncCount());
+        }
+    }
+
+    // Constant time comparison, the response time tells nothing about how much of the token matched
+    private boolean isAuthorized(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return false;
+        }
+
+        byte[] token = authorization.substring(BEARER_PREFIX.length()).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(token, metricsToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeCache(PrintWriter writer, String cacheName, TtlCache<?, ?> cache) {
+        String labels = "{cache=\"" + cacheName + "\"}";
+
+        writeMetric(writer, "cache_size", labels, cache.size());
+        writeMetric(writer, "cache_hits_total", labels, cache.getHitCount());
+        writeMetric(writer, "cache_misses_total", labels, cache.getMissCount());
+        writeMetric(writer, "cache_evictions_total", labels, cache.getEvictionCount());
+    }
+
+    private static void writeCacheRegion(PrintWriter writer, CacheRegionStatistics regionStatistics) {
+        // Region is reported once it has been used
+        if (regionStatistics == null) {
+            return;
+        }
+
+        String labels = "{region=\"" + regionStatistics.getRegionName() + "\"}";
+
+        writeMetric(writer, "l2_cache_hits_total", labels, regionStatistics.getHitCount());
+        writeMetric(writer, "l2_cache_misses_total", labels, regionStatistics.getMissCount());
+        writeMetric(writer, "l2_cache_puts_total", labels, regionStatistics.getPutCount());
+    }
+
+    private static void writeMetric(PrintWriter writer, String name, String labels, long value) {
+        writer.println("weather_tracker_" + name + labels + " " + value);
+    }
+}
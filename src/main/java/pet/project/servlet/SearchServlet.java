@@ -6,7 +6,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import pet.project.dao.LocationDao;
-import pet.project.dao.SessionDao;
 import pet.project.exception.CookieNotFoundException;
 import pet.project.exception.InvalidParameterException;
 import pet.project.exception.SessionExpiredException;
@@ -16,19 +15,25 @@ import pet.project.model.Location;
 import pet.project.model.Session;
 import pet.project.model.User;
 import pet.project.model.api.LocationApiResponse;
+import pet.project.model.dto.LocationDto;
+import pet.project.service.SessionService;
 import pet.project.service.WeatherApiService;
+import pet.project.service.cache.TtlCache;
+import pet.project.service.location.LocationIndex;
+import pet.project.util.CacheUtil;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Slf4j
 @WebServlet("/search")
 public class SearchServlet extends WeatherTrackerBaseServlet {
-    private final SessionDao sessionDao = new SessionDao();
+    private final SessionService sessionService = new SessionService();
     private final LocationDao locationDao = new LocationDao();
     private final WeatherApiService weatherApiService = new WeatherApiService();
+    private final TtlCache<Long, List<LocationDto>> userLocationsCache = CacheUtil.getUserLocationsCache();
+    private final LocationIndex locationIndex = CacheUtil.getLocationIndex();
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException, SessionExpiredException, InvalidParameterException, GeocodingApiCallException, UnauthorizedSearchException {
@@ -37,15 +42,9 @@ public class SearchServlet extends WeatherTrackerBaseServlet {
         Cookie cookie = findCookieByName(cookies, "sessionId")
                 .orElseThrow(() -> new UnauthorizedSearchException("Attempt to search location without authorization"));
 
-        UUID sessionId = UUID.fromString(cookie.getValue());
-
-        log.info("Finding session: " + sessionId);
-        Session session = sessionDao.findById(sessionId)
-                .orElseThrow(() -> new SessionExpiredException("Session: " + sessionId + " has expired"));
-
-        if (isSessionExpired(session)) {
-            throw new SessionExpiredException("Session: " + sessionId + " has expired");
-        }
+        log.info("Finding session");
+        Session session = sessionService.findActiveSession(cookie.getValue())
+                .orElseThrow(() -> new SessionExpiredException("Session has expired"));
 
         User user = session.getUser();
 
@@ -72,15 +71,9 @@ public class SearchServlet extends WeatherTrackerBaseServlet {
         Cookie cookie = findCookieByName(cookies, "sessionId")
                 .orElseThrow(() -> new CookieNotFoundException("Cookie with session id is not found"));
 
-        UUID sessionId = UUID.fromString(cookie.getValue());
-
-        log.info("Finding session: " + sessionId);
-        Session session = sessionDao.findById(sessionId)
-                .orElseThrow(() -> new SessionExpiredException("Session: " + sessionId + " has expired"));
-
-        if (isSessionExpired(session)) {
-            throw new SessionExpiredException("Session: " + sessionId + " has expired");
-        }
+        log.info("Finding session");
+        Session session = sessionService.findActiveSession(cookie.getValue())
+                .orElseThrow(() -> new SessionExpiredException("Session has expired"));
 
         User user = session.getUser();
 
@@ -101,28 +94,37 @@ public class SearchServlet extends WeatherTrackerBaseServlet {
         Double latitude = Double.valueOf(latitudeParam);
         Double longitude = Double.valueOf(longitudeParam);
 
-        log.info("Finding location: lat=" + latitude + " lon=" + longitude);
-        Optional<Location> locationOptional = locationDao.findByCoordinates(latitude, longitude);
-
-        if (locationOptional.isPresent()) {
-            log.info("Location is found: " + locationOptional.get().getId() + " Adding user: " + user.getId() + " to location: " + locationOptional.get().getId());
-            Location location = locationOptional.get();
+        log.info("Finding location near: lat=" + latitude + " lon=" + longitude);
+        Optional<LocationDto> nearbyLocation = locationIndex.findNearest(latitude, longitude);
 
-            List<User> users = location.getUsers();
-            users.add(user);
-            location.setUsers(users);
+        if (nearbyLocation.isPresent()) {
+            log.info("Nearby location is found: " + nearbyLocation.get().getId() + " Adding user: " + user.getId() + " to location: " + nearbyLocation.get().getId());
 
-            locationDao.update(location);
+            locationDao.subscribe(nearbyLocation.get().getId(), user.getId());
         } else {
-            log.info("Location is not found: creating new location");
-            Location location = new Location(
-                    name,
-                    List.of(user),
-                    latitude,
-                    longitude
-            );
-            locationDao.save(location);
+            // Location created by another instance is not in the index yet, the exact match still finds it
+            log.info("Finding location: lat=" + latitude + " lon=" + longitude);
+            Optional<Location> locationOptional = locationDao.findByCoordinates(latitude, longitude);
+
+            if (locationOptional.isPresent()) {
+                log.info("Location is found: " + locationOptional.get().getId() + " Adding user: " + user.getId() + " to location: " + locationOptional.get().getId());
+                Location location = locationOptional.get();
+
+                locationDao.subscribe(location.getId(), user.getId());
+                locationIndex.add(LocationDto.of(location));
+            } else {
+                log.info("Location is not found: creating new location");
+                Location location = new Location(
+                        name,
+                        List.of(user),
+                        latitude,
+                        longitude
+                );
+                locationDao.save(location);
+                locationIndex.add(LocationDto.of(location));
+            }
         }
+        userLocationsCache.invalidate(user.getId());
 
         log.info("Adding location to the tracked list is successful: redirecting to the home page");
         resp.sendRedirect(req.getContextPath());
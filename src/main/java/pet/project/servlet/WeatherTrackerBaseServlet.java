@@ -12,14 +12,14 @@ import org.thymeleaf.context.WebContext;
 import pet.project.exception.*;
 import pet.project.exception.api.GeocodingApiCallException;
 import pet.project.exception.api.WeatherApiCallException;
+import pet.project.exception.authentication.LoginThrottledException;
+import pet.project.exception.authentication.PasswordHashingRejectedException;
 import pet.project.exception.authentication.UserExistsException;
 import pet.project.exception.authentication.UserNotFoundException;
 import pet.project.exception.authentication.WrongPasswordException;
-import pet.project.model.Session;
 import pet.project.util.ThymeleafUtil;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Optional;
 
@@ -48,6 +48,19 @@ public abstract class WeatherTrackerBaseServlet extends HttpServlet {
             context.setVariable("error", e.getMessage());
             templateEngine.process("error", context, resp.getWriter());
 
+        } catch (PasswordHashingRejectedException e) {
+            log.warn(e.getMessage());
+            resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            context.setVariable("error", e.getMessage());
+            templateEngine.process("error", context, resp.getWriter());
+
+        } catch (LoginThrottledException e) {
+            log.warn(e.getMessage());
+            // Too Many Requests, servlet api has no constant for it
+            resp.setStatus(429);
+            context.setVariable("error", e.getMessage());
+            templateEngine.process("error", context, resp.getWriter());
+
         } catch (SessionExpiredException | UserExistsException e) {
             log.warn(e.getMessage());
             resp.sendRedirect(req.getContextPath() + "/sign-in");
@@ -72,11 +85,4 @@ public abstract class WeatherTrackerBaseServlet extends HttpServlet {
                 .filter(cookie -> cookie.getName().equals(cookieName))
                 .findFirst();
     }
-
-    protected static boolean isSessionExpired(Session session) {
-        LocalDateTime expiresAt = session.getExpiresAt();
-        LocalDateTime currentTime = LocalDateTime.now();
-
-        return currentTime.isAfter(expiresAt);
-    }
 }
@@ -1,29 +1,30 @@
 package pet.project.servlet.authentication;
 
-import com.password4j.Password;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import pet.project.dao.SessionDao;
 import pet.project.dao.UserDao;
 import pet.project.exception.InvalidParameterException;
+import pet.project.exception.authentication.LoginThrottledException;
+import pet.project.exception.authentication.PasswordHashingRejectedException;
 import pet.project.exception.authentication.UserNotFoundException;
 import pet.project.exception.authentication.WrongPasswordException;
 import pet.project.model.Session;
 import pet.project.model.User;
+import pet.project.service.PasswordService;
+import pet.project.service.SessionService;
 import pet.project.servlet.WeatherTrackerBaseServlet;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Slf4j
 @WebServlet("/sign-in")
 public class SignInServlet extends WeatherTrackerBaseServlet {
     private final UserDao userDao = new UserDao();
-    private final SessionDao sessionDao = new SessionDao();
+    private final SessionService sessionService = new SessionService();
+    private final PasswordService passwordService = new PasswordService();
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
@@ -32,7 +33,7 @@ public class SignInServlet extends WeatherTrackerBaseServlet {
     }
 
     @Override
-    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException, InvalidParameterException, UserNotFoundException, WrongPasswordException {
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException, InvalidParameterException, UserNotFoundException, WrongPasswordException, PasswordHashingRejectedException, LoginThrottledException {
         String login = req.getParameter("login");
         String password = req.getParameter("password");
 
@@ -48,19 +49,34 @@ public class SignInServlet extends WeatherTrackerBaseServlet {
 
         String actualPassword = user.getPassword();
 
-        if (!Password.check(password, actualPassword).withBcrypt()) {
+        if (!passwordService.check(login, password, actualPassword)) {
             throw new WrongPasswordException("Authentication failed, wrong password. User: " + user.getId());
         }
 
+        if (passwordService.needsRehash(actualPassword)) {
+            rehashPassword(user, password);
+        }
+
         log.info("Creating new session");
-        Session session = new Session(UUID.randomUUID(), user, LocalDateTime.now().plusHours(24));
-        sessionDao.save(session);
+        Session session = sessionService.createSession(user);
 
         log.info("Adding cookie with the session: " + session.getId() + " to the response");
-        Cookie cookie = new Cookie("sessionId", session.getId().toString());
+        Cookie cookie = new Cookie("sessionId", sessionService.getCookieValue(session));
         resp.addCookie(cookie);
 
         log.info("Authentication is successful: redirecting to the home page");
         resp.sendRedirect(req.getContextPath());
     }
+
+    // Sign-in has already succeeded, a rejected rehash is retried on the next one
+    private void rehashPassword(User user, String password) {
+        try {
+            user.setPassword(passwordService.hash(password));
+            userDao.update(user);
+            log.info("Password of user: " + user.getId() + " is rehashed with the current bcrypt cost");
+
+        } catch (PasswordHashingRejectedException | RuntimeException e) {
+            log.warn("Password rehash is skipped: " + e.getMessage());
+        }
+    }
 }
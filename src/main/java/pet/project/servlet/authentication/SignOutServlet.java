@@ -6,19 +6,18 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import pet.project.dao.SessionDao;
 import pet.project.exception.CookieNotFoundException;
 import pet.project.exception.SessionExpiredException;
 import pet.project.model.Session;
+import pet.project.service.SessionService;
 import pet.project.servlet.WeatherTrackerBaseServlet;
 
 import java.io.IOException;
-import java.util.UUID;
 
 @Slf4j
 @WebServlet("/sign-out")
 public class SignOutServlet extends WeatherTrackerBaseServlet {
-    private final SessionDao sessionDao = new SessionDao();
+    private final SessionService sessionService = new SessionService();
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
@@ -27,18 +26,12 @@ public class SignOutServlet extends WeatherTrackerBaseServlet {
         Cookie cookie = findCookieByName(cookies, "sessionId")
                 .orElseThrow(() -> new CookieNotFoundException("Cookie with session id is not found"));
 
-        UUID sessionId = UUID.fromString(cookie.getValue());
+        log.info("Finding session");
+        Session session = sessionService.findActiveSession(cookie.getValue())
+                .orElseThrow(() -> new SessionExpiredException("Session has expired"));
 
-        log.info("Finding session: " + sessionId);
-        Session session = sessionDao.findById(sessionId)
-                .orElseThrow(() -> new SessionExpiredException("Session: " + sessionId + " has expired"));
-
-        if (isSessionExpired(session)) {
-            throw new SessionExpiredException("Session: " + sessionId + " has expired");
-        }
-
-        log.info("Deleting session: " + sessionId + " from database");
-        sessionDao.delete(session);
+        log.info("Deleting session: " + session.getId());
+        sessionService.deleteSession(cookie.getValue(), session);
 
         log.info("Deleting cookie from response");
         Cookie emptyCookie = new Cookie("sessionId", null);
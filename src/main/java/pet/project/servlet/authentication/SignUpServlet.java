@@ -1,28 +1,27 @@
 package pet.project.servlet.authentication;
 
-import com.password4j.Hash;
-import com.password4j.Password;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import pet.project.dao.SessionDao;
 import pet.project.dao.UserDao;
 import pet.project.exception.InvalidParameterException;
+import pet.project.exception.authentication.PasswordHashingRejectedException;
 import pet.project.model.Session;
 import pet.project.model.User;
+import pet.project.service.PasswordService;
+import pet.project.service.SessionService;
 import pet.project.servlet.WeatherTrackerBaseServlet;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Slf4j
 @WebServlet("/sign-up")
 public class SignUpServlet extends WeatherTrackerBaseServlet {
     private final UserDao userDao = new UserDao();
-    private final SessionDao sessionDao = new SessionDao();
+    private final SessionService sessionService = new SessionService();
+    private final PasswordService passwordService = new PasswordService();
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
@@ -31,7 +30,7 @@ public class SignUpServlet extends WeatherTrackerBaseServlet {
     }
 
     @Override
-    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException, InvalidParameterException {
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException, InvalidParameterException, PasswordHashingRejectedException {
         String login = req.getParameter("login");
         String password = req.getParameter("password");
 
@@ -42,18 +41,17 @@ public class SignUpServlet extends WeatherTrackerBaseServlet {
             throw new InvalidParameterException("Parameter login is invalid");
         }
 
-        Hash hash = Password.hash(password).withBcrypt();
+        String hash = passwordService.hash(password);
 
         log.info("Saving new user to the database");
-        User user = new User(login, hash.getResult());
+        User user = new User(login, hash);
         userDao.save(user);
 
         log.info("Creating new session");
-        Session session = new Session(UUID.randomUUID(), user, LocalDateTime.now().plusHours(24));
-        sessionDao.save(session);
+        Session session = sessionService.createSession(user);
 
         log.info("Adding cookie with session: " + session.getId() + " to the response");
-        Cookie cookie = new Cookie("sessionId", session.getId().toString());
+        Cookie cookie = new Cookie("sessionId", sessionService.getCookieValue(session));
         resp.addCookie(cookie);
 
         log.info("Registration is successful: redirecting to the home page");
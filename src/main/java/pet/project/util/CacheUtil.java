@@ -0,0 +1,102 @@
+package pet.project.util;
+
+import pet.project.model.api.WeatherApiResponse;
+import pet.project.model.dto.LocationDto;
+import pet.project.service.WeatherApiService;
+import pet.project.service.cache.ForecastCache;
+import pet.project.service.cache.GeocodingCache;
+import pet.project.service.cache.LocationKey;
+import pet.project.service.cache.LocationPopularity;
+import pet.project.service.cache.SessionCache;
+import pet.project.service.cache.TtlCache;
+import pet.project.service.location.LocationIndex;
+import pet.project.service.session.SessionRenewals;
+
+import java.time.Duration;
+import java.util.List;
+
+public class CacheUtil {
+    private static final TtlCache<LocationKey, WeatherApiResponse> WEATHER_CACHE_INSTANCE;
+    private static final GeocodingCache GEOCODING_CACHE_INSTANCE;
+    private static final ForecastCache FORECAST_CACHE_INSTANCE;
+    private static final SessionCache SESSION_CACHE_INSTANCE;
+    private static final TtlCache<Long, List<LocationDto>> USER_LOCATIONS_CACHE_INSTANCE;
+    private static final LocationIndex LOCATION_INDEX_INSTANCE;
+    private static final SessionRenewals SESSION_RENEWALS_INSTANCE = new SessionRenewals();
+    private static final LocationPopularity LOCATION_POPULARITY_INSTANCE = new LocationPopularity();
+
+    static {
+        // OpenWeather updates current weather roughly every 10 minutes
+        long weatherTtlSeconds = EnvironmentUtil.getLong("WEATHER_CACHE_TTL_SECONDS", 600);
+        int weatherMaxSize = EnvironmentUtil.getInt("WEATHER_CACHE_MAX_SIZE", 10_000);
+
+        WEATHER_CACHE_INSTANCE = new TtlCache<>(weatherMaxSize, Duration.ofSeconds(weatherTtlSeconds));
+
+        // Geocoding results almost never change, empty results are kept shortly in case of a new place
+        long geocodingTtlSeconds = EnvironmentUtil.getLong("GEOCODING_CACHE_TTL_SECONDS", 7 * 24 * 60 * 60);
+        long geocodingEmptyTtlSeconds = EnvironmentUtil.getLong("GEOCODING_CACHE_EMPTY_TTL_SECONDS", 5 * 60);
+        int geocodingMaxSize = EnvironmentUtil.getInt("GEOCODING_CACHE_MAX_SIZE", 50_000);
+
+        GEOCODING_CACHE_INSTANCE = new GeocodingCache(
+                geocodingMaxSize,
+                Duration.ofSeconds(geocodingTtlSeconds),
+                Duration.ofSeconds(geocodingEmptyTtlSeconds),
+                WeatherApiService.GEOCODING_RESULT_LIMIT
+        );
+
+        // Forecast expiry follows the timestamps of the payload, minimum ttl avoids refetching a late publication
+        long forecastMinTtlSeconds = EnvironmentUtil.getLong("FORECAST_CACHE_MIN_TTL_SECONDS", 60);
+        int forecastMaxSize = EnvironmentUtil.getInt("FORECAST_CACHE_MAX_SIZE", 10_000);
+
+        FORECAST_CACHE_INSTANCE = new ForecastCache(forecastMaxSize, Duration.ofSeconds(forecastMinTtlSeconds));
+
+        // Sessions deleted outside of sign-out, e.g. by the expiry job, are dropped from the cache within the ttl
+        long sessionTtlSeconds = EnvironmentUtil.getLong("SESSION_CACHE_TTL_SECONDS", 5 * 60);
+        int sessionMaxSize = EnvironmentUtil.getInt("SESSION_CACHE_MAX_SIZE", 100_000);
+
+        SESSION_CACHE_INSTANCE = new SessionCache(sessionMaxSize, Duration.ofSeconds(sessionTtlSeconds));
+
+        // Subscriptions made on this instance invalidate the entry at once, the ttl bounds the staleness across instances
+        long userLocationsTtlSeconds = EnvironmentUtil.getLong("USER_LOCATIONS_CACHE_TTL_SECONDS", 5 * 60);
+        int userLocationsMaxSize = EnvironmentUtil.getInt("USER_LOCATIONS_CACHE_MAX_SIZE", 100_000);
+
+        USER_LOCATIONS_CACHE_INSTANCE = new TtlCache<>(userLocationsMaxSize, Duration.ofSeconds(userLocationsTtlSeconds));
+
+        // Geocoding results for the same place differ in the last decimals, e.g. 0.00001 degree is about a meter
+        long locationMatchRadiusMeters = EnvironmentUtil.getLong("LOCATION_MATCH_RADIUS_METERS", 100);
+
+        LOCATION_INDEX_INSTANCE = new LocationIndex(locationMatchRadiusMeters);
+    }
+
+    public static TtlCache<LocationKey, WeatherApiResponse> getWeatherCache() {
+        return WEATHER_CACHE_INSTANCE;
+    }
+
+    public static GeocodingCache getGeocodingCache() {
+        return GEOCODING_CACHE_INSTANCE;
+    }
+
+    public static ForecastCache getForecastCache() {
+        return FORECAST_CACHE_INSTANCE;
+    }
+
+    public static SessionCache getSessionCache() {
+        return SESSION_CACHE_INSTANCE;
+    }
+
+    public static TtlCache<Long, List<LocationDto>> getUserLocationsCache() {
+        return USER_LOCATIONS_CACHE_INSTANCE;
+    }
+
+    public static LocationIndex getLocationIndex() {
+        return LOCATION_INDEX_INSTANCE;
+    }
+
+    public static SessionRenewals getSessionRenewals() {
+        return SESSION_RENEWALS_INSTANCE;
+    }
+
+    public static LocationPopularity getLocationPopularity() {
+        return LOCATION_POPULARITY_INSTANCE;
+    }
+}
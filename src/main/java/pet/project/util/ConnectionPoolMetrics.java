@@ -0,0 +1,86 @@
+package pet.project.util;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters are fed by the pool itself, gauges are read live from the pool bean
+public class ConnectionPoolMetrics implements MetricsTrackerFactory, IMetricsTracker {
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+
+    private HikariPoolMXBean poolBean;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return this;
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        createdCount.increment();
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquiredCount.increment();
+        acquireNanos.add(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usageMillis.add(elapsedBorrowedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeoutCount.increment();
+    }
+
+    void setPoolBean(HikariPoolMXBean poolBean) {
+        this.poolBean = poolBean;
+    }
+
+    public int getActiveCount() {
+        return poolBean == null ? 0 : poolBean.getActiveConnections();
+    }
+
+    public int getIdleCount() {
+        return poolBean == null ? 0 : poolBean.getIdleConnections();
+    }
+
+    public int getTotalCount() {
+        return poolBean == null ? 0 : poolBean.getTotalConnections();
+    }
+
+    public int getWaitingThreadCount() {
+        return poolBean == null ? 0 : poolBean.getThreadsAwaitingConnection();
+    }
+
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    public long getAcquireMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(acquireNanos.sum());
+    }
+
+    public long getUsageMillis() {
+        return usageMillis.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+}
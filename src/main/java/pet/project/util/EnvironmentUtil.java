@@ -0,0 +1,32 @@
+package pet.project.util;
+
+public class EnvironmentUtil {
+    public static String getString(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static long getLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        return Long.parseLong(value.trim());
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        return (int) getLong(name, defaultValue);
+    }
+
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = System.getenv(name);
+
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        return Boolean.parseBoolean(value.trim());
+    }
+}
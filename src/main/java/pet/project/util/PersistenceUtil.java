@@ -1,31 +1,210 @@
 package pet.project.util;
 
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class PersistenceUtil {
-    private static final EntityManagerFactory ENTITY_MANAGER_FACTORY_INSTANCE;
+    // Regions of the second-level cache, entities and queries name them in their cache settings
+    public static final String LOCATION_CACHE_REGION = "location";
+    public static final String USER_CACHE_REGION = "user";
+    public static final String LOCATION_BY_COORDINATES_CACHE_REGION = "location-by-coordinates";
 
-    static {
-        Map<String, String> config = new HashMap<>();
+    private static final String DEFAULT_QUERY_CACHE_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_CACHE_REGION = "default-update-timestamps-region";
 
-        String jdbcUrl = System.getenv("JAKARTA_PERSISTENCE_JDBC_URL");
-        String jdbcUser = System.getenv("JAKARTA_PERSISTENCE_JDBC_USER");
-        String jdbcPassword = System.getenv("JAKARTA_PERSISTENCE_JDBC_PASSWORD");
-        String hibernateDdlAuto = System.getenv("HIBERNATE_DDL_AUTO");
+    // Set once the factory is built, so the shutdown does not build one only to close it
+    private static volatile boolean isEntityManagerFactoryCreated;
 
-        config.put("jakarta.persistence.jdbc.url", jdbcUrl);
-        config.put("jakarta.persistence.jdbc.user", jdbcUser);
-        config.put("jakarta.persistence.jdbc.password", jdbcPassword);
-        config.put("hibernate.hbm2ddl.auto", hibernateDdlAuto);
+    // Entity manager of the current request or background job, it is opened on the first use
+    private static final ThreadLocal<UnitOfWork> UNIT_OF_WORK = new ThreadLocal<>();
 
-        ENTITY_MANAGER_FACTORY_INSTANCE = Persistence.createEntityManagerFactory("weatherPersistenceUnit", config);
+    public static EntityManagerFactory getEntityManagerFactory() {
+        return EntityManagerFactoryHolder.ENTITY_MANAGER_FACTORY_INSTANCE;
     }
 
-    public static EntityManagerFactory getEntityManagerFactory() {
-        return ENTITY_MANAGER_FACTORY_INSTANCE;
+    public static Statistics getStatistics() {
+        return getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public static ConnectionPoolMetrics getConnectionPoolMetrics() {
+        return EntityManagerFactoryHolder.CONNECTION_POOL_METRICS_INSTANCE;
+    }
+
+    public static EntityManager getEntityManager() {
+        UnitOfWork unitOfWork = UNIT_OF_WORK.get();
+        if (unitOfWork == null) {
+            throw new IllegalStateException("No unit of work is open on thread: " + Thread.currentThread().getName());
+        }
+
+        if (unitOfWork.entityManager == null) {
+            unitOfWork.entityManager = unitOfWork.entityManagerSupplier.get();
+        }
+        return unitOfWork.entityManager;
+    }
+
+    // Returns false when the thread is already inside a unit of work, the outer one stays in charge of it
+    public static boolean beginUnitOfWork() {
+        return beginUnitOfWork(() -> getEntityManagerFactory().createEntityManager());
+    }
+
+    static boolean beginUnitOfWork(Supplier<EntityManager> entityManagerSupplier) {
+        if (UNIT_OF_WORK.get() != null) {
+            return false;
+        }
+
+        UNIT_OF_WORK.set(new UnitOfWork(entityManagerSupplier));
+        return true;
+    }
+
+    public static void endUnitOfWork() {
+        UnitOfWork unitOfWork = UNIT_OF_WORK.get();
+        UNIT_OF_WORK.remove();
+
+        if (unitOfWork == null || unitOfWork.entityManager == null) {
+            return;
+        }
+
+        EntityManager entityManager = unitOfWork.entityManager;
+        if (entityManager.getTransaction().isActive()) {
+            entityManager.getTransaction().rollback();
+        }
+        entityManager.close();
+    }
+
+    public static <T> T inUnitOfWork(Supplier<T> work) {
+        boolean isOpened = beginUnitOfWork();
+        try {
+            return work.get();
+        } finally {
+            if (isOpened) {
+                endUnitOfWork();
+            }
+        }
+    }
+
+    public static void inUnitOfWork(Runnable work) {
+        inUnitOfWork(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Closes the factory, the second-level cache and the connection pool with its housekeeping thread
+    public static synchronized void shutdown() {
+        if (!isEntityManagerFactoryCreated) {
+            return;
+        }
+        isEntityManagerFactoryCreated = false;
+
+        getEntityManagerFactory().close();
+        EntityManagerFactoryHolder.CACHE_MANAGER_INSTANCE.close();
+        EntityManagerFactoryHolder.DATA_SOURCE_INSTANCE.close();
+    }
+
+    private static class UnitOfWork {
+        private final Supplier<EntityManager> entityManagerSupplier;
+        private EntityManager entityManager;
+
+        private UnitOfWork(Supplier<EntityManager> entityManagerSupplier) {
+            this.entityManagerSupplier = entityManagerSupplier;
+        }
+    }
+
+    // Initialized on the first use, so the request scope can be managed without a database
+    private static class EntityManagerFactoryHolder {
+        private static final ConnectionPoolMetrics CONNECTION_POOL_METRICS_INSTANCE = new ConnectionPoolMetrics();
+        private static final HikariDataSource DATA_SOURCE_INSTANCE = createDataSource();
+        private static final CacheManager CACHE_MANAGER_INSTANCE = createCacheManager();
+        private static final EntityManagerFactory ENTITY_MANAGER_FACTORY_INSTANCE = createEntityManagerFactory();
+
+        private static EntityManagerFactory createEntityManagerFactory() {
+            CONNECTION_POOL_METRICS_INSTANCE.setPoolBean(DATA_SOURCE_INSTANCE.getHikariPoolMXBean());
+
+            Map<String, Object> config = new HashMap<>();
+
+            String hibernateDdlAuto = System.getenv("HIBERNATE_DDL_AUTO");
+
+            config.put("jakarta.persistence.nonJtaDataSource", DATA_SOURCE_INSTANCE);
+            config.put("hibernate.javax.cache.cache_manager", CACHE_MANAGER_INSTANCE);
+            config.put("hibernate.hbm2ddl.auto", hibernateDdlAuto);
+
+            // Counters are updated on every load and query, so they are collected only when asked for
+            config.put("hibernate.generate_statistics", EnvironmentUtil.getBoolean("HIBERNATE_GENERATE_STATISTICS", false));
+
+            EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory("weatherPersistenceUnit", config);
+            isEntityManagerFactoryCreated = true;
+            return entityManagerFactory;
+        }
+
+        // Every region is bounded, entries of a region are evicted by size and by age
+        private static CacheManager createCacheManager() {
+            CacheManager cacheManager = Caching.getCachingProvider(
+                    "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"
+            ).getCacheManager();
+
+            long ttlSeconds = EnvironmentUtil.getLong("L2_CACHE_TTL_SECONDS", 60 * 60);
+
+            createCacheRegion(cacheManager, LOCATION_CACHE_REGION, EnvironmentUtil.getLong("L2_CACHE_LOCATION_MAX_SIZE", 10_000), ttlSeconds);
+            createCacheRegion(cacheManager, USER_CACHE_REGION, EnvironmentUtil.getLong("L2_CACHE_USER_MAX_SIZE", 10_000), ttlSeconds);
+            createCacheRegion(cacheManager, LOCATION_BY_COORDINATES_CACHE_REGION, EnvironmentUtil.getLong("L2_CACHE_QUERY_MAX_SIZE", 10_000), ttlSeconds);
+            createCacheRegion(cacheManager, DEFAULT_QUERY_CACHE_REGION, 1_000, ttlSeconds);
+
+            // Timestamps decide whether a cached query result is stale, they must outlive the results
+            createCacheRegion(cacheManager, UPDATE_TIMESTAMPS_CACHE_REGION, 1_000, 0);
+
+            return cacheManager;
+        }
+
+        private static void createCacheRegion(CacheManager cacheManager, String region, long maximumSize, long ttlSeconds) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            if (ttlSeconds > 0) {
+                configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            }
+
+            // Hibernate stores disassembled, immutable entries, copying them on every read is not needed
+            configuration.setStoreByValue(false);
+
+            cacheManager.createCache(region, configuration);
+        }
+
+        private static HikariDataSource createDataSource() {
+            HikariConfig hikariConfig = new HikariConfig();
+            hikariConfig.setPoolName("weather-tracker");
+
+            hikariConfig.setJdbcUrl(EnvironmentUtil.getString("JAKARTA_PERSISTENCE_JDBC_URL", "jdbc:postgresql://localhost:5432/weather-tracker"));
+            hikariConfig.setUsername(EnvironmentUtil.getString("JAKARTA_PERSISTENCE_JDBC_USER", "java"));
+            hikariConfig.setPassword(EnvironmentUtil.getString("JAKARTA_PERSISTENCE_JDBC_PASSWORD", "java"));
+
+            // Requests hold a connection only while a query or a transaction runs, a few connections serve many threads
+            hikariConfig.setMaximumPoolSize(EnvironmentUtil.getInt("DB_POOL_MAX_SIZE", Runtime.getRuntime().availableProcessors() * 2 + 1));
+            hikariConfig.setMinimumIdle(EnvironmentUtil.getInt("DB_POOL_MIN_IDLE", 2));
+            hikariConfig.setConnectionTimeout(EnvironmentUtil.getLong("DB_POOL_CONNECTION_TIMEOUT_MILLIS", 3000));
+            hikariConfig.setMaxLifetime(EnvironmentUtil.getLong("DB_POOL_MAX_LIFETIME_MILLIS", 30 * 60 * 1000));
+
+            // Postgres driver turns statements repeated on a connection into server-side prepared statements
+            hikariConfig.addDataSourceProperty("prepareThreshold", EnvironmentUtil.getInt("DB_PREPARE_THRESHOLD", 3));
+            hikariConfig.addDataSourceProperty("preparedStatementCacheQueries", EnvironmentUtil.getInt("DB_STATEMENT_CACHE_QUERIES", 256));
+            hikariConfig.addDataSourceProperty("preparedStatementCacheSizeMiB", EnvironmentUtil.getInt("DB_STATEMENT_CACHE_SIZE_MIB", 5));
+
+            hikariConfig.setMetricsTrackerFactory(CONNECTION_POOL_METRICS_INSTANCE);
+
+            return new HikariDataSource(hikariConfig);
+        }
     }
 }
@@ -0,0 +1,107 @@
+package pet.project.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Background job on its own daemon thread, every next run is scheduled after the previous one ends,
+// so a slow run never makes the missed runs pile up behind it
+@Slf4j
+public class ScheduledTask {
+    private static final long STOP_TIMEOUT_SECONDS = 15;
+
+    private final String name;
+    private final Runnable task;
+
+    private final AtomicLong failedRunCount = new AtomicLong();
+
+    private ScheduledThreadPoolExecutor scheduler;
+    private LongSupplier delayMillis;
+
+    public ScheduledTask(String name, Runnable task) {
+        this.name = name;
+        this.task = task;
+    }
+
+    public void start(Duration initialDelay, Duration delay) {
+        long delayMillis = delay.toMillis();
+        start(initialDelay.toMillis(), () -> delayMillis);
+    }
+
+    // Delay is asked for before every run, e.g. to add a jitter
+    public synchronized void start(long initialDelayMillis, LongSupplier delayMillis) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Task is already started: " + name);
+        }
+
+        ScheduledThreadPoolExecutor startedScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Stop lets the running run finish, but drops the one still waiting for its delay
+        startedScheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+        scheduler = startedScheduler;
+        this.delayMillis = delayMillis;
+        startedScheduler.schedule(() -> runAndReschedule(startedScheduler), initialDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        ScheduledThreadPoolExecutor stoppedScheduler;
+        synchronized (this) {
+            stoppedScheduler = scheduler;
+            scheduler = null;
+        }
+
+        if (stoppedScheduler == null) {
+            return;
+        }
+
+        // Awaiting outside of the lock lets a running run finish its reschedule check
+        stoppedScheduler.shutdown();
+        try {
+            if (!stoppedScheduler.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Task did not stop in time: " + name);
+                stoppedScheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            stoppedScheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized boolean isStarted() {
+        return scheduler != null;
+    }
+
+    // Runs on the calling thread, e.g. a last run on stop
+    public void runSafely() {
+        try {
+            task.run();
+        } catch (Exception e) {
+            // Exception would cancel all the subsequent runs of the scheduler
+            failedRunCount.incrementAndGet();
+            log.warn("Task failed: " + name + ": " + e.getMessage());
+        }
+    }
+
+    public long getFailedRunCount() {
+        return failedRunCount.get();
+    }
+
+    // Scheduler is compared, so a run of a stopped scheduler never reschedules onto a restarted one
+    private void runAndReschedule(ScheduledThreadPoolExecutor runScheduler) {
+        runSafely();
+
+        synchronized (this) {
+            if (scheduler == runScheduler) {
+                runScheduler.schedule(() -> runAndReschedule(runScheduler), delayMillis.getAsLong(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package pet.project.dao;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pet.project.model.Location;
+import pet.project.model.User;
+import pet.project.util.PersistenceUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the in-memory database configured for the tests
+class LocationDaoTest {
+    private final LocationDao locationDao = new LocationDao();
+    private final UserDao userDao = new UserDao();
+
+    private Location location;
+
+    @BeforeEach
+    public void setUp() {
+        double coordinate = Math.random() * 80;
+        location = new Location("Location", new ArrayList<>(), coordinate, coordinate);
+        PersistenceUtil.inUnitOfWork(() -> locationDao.save(location));
+
+        PersistenceUtil.getEntityManagerFactory().getCache().evictAll();
+        PersistenceUtil.getStatistics().clear();
+    }
+
+    @Test
+    public void findById_secondUnitOfWork_shouldBeServedFromLocationRegion() {
+        PersistenceUtil.inUnitOfWork(() -> locationDao.findById(location.getId()));
+        PersistenceUtil.inUnitOfWork(() -> locationDao.findById(location.getId()));
+
+        CacheRegionStatistics region = regionStatistics(PersistenceUtil.LOCATION_CACHE_REGION);
+        assertEquals(1, region.getMissCount());
+        assertEquals(1, region.getHitCount());
+    }
+
+    @Test
+    public void update_cachedLocation_shouldReplaceStaleEntryInLocationRegion() {
+        PersistenceUtil.inUnitOfWork(() -> locationDao.findById(location.getId()));
+
+        location.setName("Renamed");
+        PersistenceUtil.inUnitOfWork(() -> locationDao.update(location));
+        PersistenceUtil.getStatistics().clear();
+
+        Location found = PersistenceUtil.inUnitOfWork(() -> locationDao.findById(location.getId())).orElseThrow();
+
+        assertEquals("Renamed", found.getName());
+        assertEquals(0, PersistenceUtil.getStatistics().getPrepareStatementCount());
+    }
+
+    @Test
+    public void delete_cachedLocation_shouldEvictItFromLocationRegion() {
+        PersistenceUtil.inUnitOfWork(() -> locationDao.findById(location.getId()));
+
+        PersistenceUtil.inUnitOfWork(() -> locationDao.delete(locationDao.findById(location.getId()).orElseThrow()));
+        PersistenceUtil.getStatistics().clear();
+
+        // Read-write region keeps a soft lock in place of the entry, it is never served
+        assertEquals(Optional.empty(), PersistenceUtil.inUnitOfWork(() -> locationDao.findById(location.getId())));
+        assertEquals(0, regionStatistics(PersistenceUtil.LOCATION_CACHE_REGION).getHitCount());
+        assertEquals(1, PersistenceUtil.getStatistics().getPrepareStatementCount());
+    }
+
+    @Test
+    public void findByCoordinates_afterLocationWrite_shouldMissQueryCache() {
+        findByCoordinates();
+        findByCoordinates();
+        CacheRegionStatistics region = regionStatistics(PersistenceUtil.LOCATION_BY_COORDINATES_CACHE_REGION);
+        assertEquals(1, region.getHitCount());
+
+        location.setName("Renamed");
+        PersistenceUtil.inUnitOfWork(() -> locationDao.update(location));
+        findByCoordinates();
+
+        assertEquals(1, region.getHitCount());
+        assertEquals(2, region.getMissCount());
+    }
+
+    @Test
+    public void subscribe_twice_shouldInsertSingleRow() {
+        User user = saveUser();
+
+        assertTrue(PersistenceUtil.inUnitOfWork(() -> locationDao.subscribe(location.getId(), user.getId())));
+        assertFalse(PersistenceUtil.inUnitOfWork(() -> locationDao.subscribe(location.getId(), user.getId())));
+
+        assertEquals(1, countSubscriptions(location.getId(), user.getId()));
+    }
+
+    @Test
+    public void unsubscribe_missingSubscription_shouldReturnFalse() {
+        User user = saveUser();
+
+        assertFalse(PersistenceUtil.inUnitOfWork(() -> locationDao.unsubscribe(location.getId(), user.getId())));
+    }
+
+    @Test
+    public void unsubscribe_sharedLocation_shouldDeleteOnlyRowOfUser() {
+        User user = saveUser();
+        User otherUser = saveUser();
+        PersistenceUtil.inUnitOfWork(() -> locationDao.subscribe(location.getId(), user.getId()));
+        PersistenceUtil.inUnitOfWork(() -> locationDao.subscribe(location.getId(), otherUser.getId()));
+
+        assertTrue(PersistenceUtil.inUnitOfWork(() -> locationDao.unsubscribe(location.getId(), user.getId())));
+
+        assertEquals(0, countSubscriptions(location.getId(), user.getId()));
+        assertEquals(1, countSubscriptions(location.getId(), otherUser.getId()));
+    }
+
+    @Test
+    public void subscribeAndUnsubscribe_cachedLocation_shouldNotServeStaleUsers() {
+        User user = saveUser();
+        assertEquals(List.of(), findUserIdsOfLocation());
+        assertEquals(List.of(), findUserIdsOfLocation());
+        assertEquals(1, PersistenceUtil.getStatistics().getQueryCacheHitCount());
+
+        PersistenceUtil.inUnitOfWork(() -> locationDao.subscribe(location.getId(), user.getId()));
+
+        assertEquals(List.of(user.getId()), findUserIdsOfLocation());
+        assertEquals(List.of(user.getId()), findLoadedUserIds());
+
+        PersistenceUtil.inUnitOfWork(() -> locationDao.unsubscribe(location.getId(), user.getId()));
+
+        assertEquals(List.of(), findUserIdsOfLocation());
+        assertEquals(List.of(), findLoadedUserIds());
+        // Entity itself is not evicted by a write to the join table
+        assertTrue(regionStatistics(PersistenceUtil.LOCATION_CACHE_REGION).getHitCount() > 0);
+    }
+
+    private User saveUser() {
+        User user = new User("user-" + UUID.randomUUID(), "password");
+        PersistenceUtil.inUnitOfWork(() -> userDao.save(user));
+        return user;
+    }
+
+    private long countSubscriptions(Long locationId, Long userId) {
+        return PersistenceUtil.inUnitOfWork(() -> ((Number) PersistenceUtil.getEntityManager()
+                .createNativeQuery("SELECT COUNT(*) FROM " + Location.SUBSCRIPTIONS_TABLE + " " +
+                        "WHERE location_id = :locationId AND users_id = :userId")
+                .setParameter("locationId", locationId)
+                .setParameter("userId", userId)
+                .getSingleResult()).longValue());
+    }
+
+    // Cached query over the join table, its result must be dropped by the subscription writes
+    private List<Long> findUserIdsOfLocation() {
+        return PersistenceUtil.inUnitOfWork(() -> PersistenceUtil.getEntityManager()
+                .createQuery("SELECT u.id FROM Location l JOIN l.users u WHERE l.id = :locationId", Long.class)
+                .setParameter("locationId", location.getId())
+                .setHint("org.hibernate.cacheable", true)
+                .getResultList());
+    }
+
+    private List<Long> findLoadedUserIds() {
+        return PersistenceUtil.inUnitOfWork(() -> locationDao.findById(location.getId()).orElseThrow()
+                .getUsers().stream()
+                .map(User::getId)
+                .collect(Collectors.toList()));
+    }
+
+    private void findByCoordinates() {
+        PersistenceUtil.inUnitOfWork(() -> locationDao.findByCoordinates(location.getLatitude(), location.getLongitude()));
+    }
+
+    private static CacheRegionStatistics regionStatistics(String region) {
+        Statistics statistics = PersistenceUtil.getStatistics();
+        return statistics.getCacheRegionStatistics(region);
+    }
+}
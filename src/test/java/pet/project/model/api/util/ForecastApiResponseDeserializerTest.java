@@ -0,0 +1,60 @@
+package pet.project.model.api.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import pet.project.model.api.ForecastApiResponse;
+
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pet.project.model.api.ForecastApiResponse.MISSING_HUMIDITY;
+import static pet.project.model.api.ForecastApiResponse.MISSING_WEATHER_CODE;
+
+class ForecastApiResponseDeserializerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void deserialize_recordedForecast_shouldFillColumns() throws Exception {
+        ForecastApiResponse forecast;
+        try (InputStream inputStream = getClass().getResourceAsStream("/openweather/forecast.json")) {
+            forecast = objectMapper.readValue(inputStream, ForecastApiResponse.class);
+        }
+
+        assertEquals(40, forecast.size());
+        assertEquals(1697576400, forecast.getTimestamp(0));
+        assertEquals(9.28f, forecast.getTemperature(0));
+        assertEquals(70, forecast.getHumidity(0));
+        assertEquals(800, forecast.getWeatherCode(0));
+        assertEquals("clear sky", forecast.getDescription(0));
+        assertEquals(1697576400 + 39 * 3 * 60 * 60, forecast.getTimestamp(39));
+    }
+
+    @Test
+    public void deserialize_missingValues_shouldStoreMissingMarkers() throws Exception {
+        ForecastApiResponse forecast = objectMapper.readValue(
+                "{\"list\":[{\"dt\":100,\"main\":{\"temp\":null}},{\"main\":{\"temp\":1.5}}]}",
+                ForecastApiResponse.class
+        );
+
+        assertEquals(1, forecast.size());
+        assertEquals(100, forecast.getTimestamp(0));
+        assertTrue(Float.isNaN(forecast.getTemperature(0)));
+        assertEquals(MISSING_HUMIDITY, forecast.getHumidity(0));
+        assertEquals(MISSING_WEATHER_CODE, forecast.getWeatherCode(0));
+        assertNull(forecast.getDescription(0));
+    }
+
+    @Test
+    public void deserialize_severalWeathers_shouldKeepFirstWeather() throws Exception {
+        ForecastApiResponse forecast = objectMapper.readValue(
+                "{\"cod\":\"200\",\"list\":[{\"dt\":100,\"weather\":["
+                        + "{\"id\":500,\"description\":\"light rain\"},"
+                        + "{\"id\":701,\"description\":\"mist\"}]}],\"city\":{\"name\":\"London\"}}",
+                ForecastApiResponse.class
+        );
+
+        assertEquals(1, forecast.size());
+        assertEquals(500, forecast.getWeatherCode(0));
+        assertEquals("light rain", forecast.getDescription(0));
+    }
+}
@@ -0,0 +1,95 @@
+package pet.project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.dto.WeatherDto;
+import pet.project.model.dto.enums.WeatherCondition;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DailyForecastAggregatorTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2023, 10, 17, 0, 0);
+
+    private final DailyForecastAggregator dailyForecastAggregator = new DailyForecastAggregator();
+
+    @Test
+    public void aggregate_slotsOverSeveralDays_shouldReturnStatisticsPerDayWithoutLastDay() throws Exception {
+        List<WeatherDto> dailyForecasts = dailyForecastAggregator.aggregate(forecasts(
+                slot(DAY.withHour(9), 10.0, 60, 800),
+                slot(DAY.withHour(12), 14.0, 40, 500),
+                slot(DAY.withHour(15), 12.0, 50, 500),
+                slot(DAY.plusDays(1).withHour(0), -1.0, 90, 601),
+                slot(DAY.plusDays(1).withHour(3), 3.0, 80, 601),
+                slot(DAY.plusDays(2).withHour(0), 5.0, 70, 800)
+        ));
+
+        assertEquals(2, dailyForecasts.size());
+
+        WeatherDto firstDay = dailyForecasts.get(0);
+        assertEquals(date(DAY.withHour(9)), firstDay.getDate());
+        assertEquals(12.0, firstDay.getTemperature());
+        assertEquals(10.0, firstDay.getTemperatureMinimum());
+        assertEquals(14.0, firstDay.getTemperatureMaximum());
+        assertEquals(50, firstDay.getHumidity());
+        assertEquals(WeatherCondition.RAIN, firstDay.getWeatherCondition());
+
+        WeatherDto secondDay = dailyForecasts.get(1);
+        assertEquals(date(DAY.plusDays(1)), secondDay.getDate());
+        assertEquals(1.0, secondDay.getTemperature());
+        assertEquals(WeatherCondition.SNOW, secondDay.getWeatherCondition());
+    }
+
+    @Test
+    public void aggregate_unorderedSlots_shouldReturnDaysInOrder() throws Exception {
+        List<WeatherDto> dailyForecasts = dailyForecastAggregator.aggregate(forecasts(
+                slot(DAY.plusDays(2).withHour(0), 5.0, 70, 800),
+                slot(DAY.plusDays(1).withHour(0), 3.0, 80, 800),
+                slot(DAY.withHour(12), 14.0, 40, 800)
+        ));
+
+        assertEquals(2, dailyForecasts.size());
+        assertEquals(date(DAY.withHour(12)), dailyForecasts.get(0).getDate());
+        assertEquals(date(DAY.plusDays(1)), dailyForecasts.get(1).getDate());
+    }
+
+    @Test
+    public void aggregate_conditionTie_shouldPickConditionThatReachedCountFirst() throws Exception {
+        List<WeatherDto> dailyForecasts = dailyForecastAggregator.aggregate(forecasts(
+                slot(DAY.withHour(0), 1.0, 50, 804),
+                slot(DAY.withHour(3), 1.0, 50, 200),
+                slot(DAY.withHour(6), 1.0, 50, 200),
+                slot(DAY.withHour(9), 1.0, 50, 804),
+                slot(DAY.plusDays(1), 1.0, 50, 800)
+        ));
+
+        assertEquals(WeatherCondition.THUNDERSTORM, dailyForecasts.get(0).getWeatherCondition());
+    }
+
+    @Test
+    public void aggregate_noSlots_shouldReturnEmptyList() throws Exception {
+        assertEquals(List.of(), dailyForecastAggregator.aggregate(forecasts()));
+    }
+
+    private static ForecastApiResponse forecasts(String... slots) throws Exception {
+        return new ObjectMapper().readValue(
+                "{\"list\":[" + String.join(",", slots) + "]}",
+                ForecastApiResponse.class
+        );
+    }
+
+    private static String slot(LocalDateTime date, double temperature, int humidity, int weatherCode) {
+        return "{\"dt\":" + date.atZone(ZoneId.systemDefault()).toEpochSecond()
+                + ",\"main\":{\"temp\":" + temperature + ",\"humidity\":" + humidity + "}"
+                + ",\"weather\":[{\"id\":" + weatherCode + "}]}";
+    }
+
+    private static Date date(LocalDateTime date) {
+        return Date.from(date.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,27 @@
+package pet.project.service;
+
+import org.junit.jupiter.api.Test;
+import pet.project.service.api.UpstreamStatusException;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherApiServiceTest {
+    @Test
+    public void isUpstreamFailure_serverErrorThrottlingOrIoError_shouldReturnTrue() {
+        assertTrue(WeatherApiService.isUpstreamFailure(new CompletionException(new UpstreamStatusException(503, "unavailable"))));
+        assertTrue(WeatherApiService.isUpstreamFailure(new CompletionException(new UpstreamStatusException(429, "too many requests"))));
+        assertTrue(WeatherApiService.isUpstreamFailure(new CompletionException(new HttpTimeoutException("timed out"))));
+        assertTrue(WeatherApiService.isUpstreamFailure(new IOException("connection reset")));
+    }
+
+    @Test
+    public void isUpstreamFailure_clientError_shouldReturnFalse() {
+        assertFalse(WeatherApiService.isUpstreamFailure(new CompletionException(new UpstreamStatusException(400, "wrong latitude"))));
+        assertFalse(WeatherApiService.isUpstreamFailure(new CompletionException(new UpstreamStatusException(404, "city not found"))));
+    }
+}
@@ -0,0 +1,78 @@
+package pet.project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.api.WeatherApiResponse;
+import pet.project.model.dto.WeatherDto;
+import pet.project.model.dto.enums.TimeOfDay;
+import pet.project.model.dto.enums.WeatherCondition;
+
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherDtoMapperTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void toWeatherDto_recordedWeather_shouldMapAllFields() throws Exception {
+        WeatherDto weatherDto = new WeatherDtoMapper().toWeatherDto(read("weather.json", WeatherApiResponse.class));
+
+        assertEquals(WeatherCondition.CLOUDS, weatherDto.getWeatherCondition());
+        assertEquals("broken clouds", weatherDto.getDescription());
+        assertEquals(12.41, weatherDto.getTemperature());
+        assertEquals(79, weatherDto.getHumidity());
+        assertEquals(8.23, weatherDto.getWindGust());
+        assertEquals(75, weatherDto.getCloudiness());
+        assertEquals(new Date(1697551200_000L), weatherDto.getDate());
+        assertEquals(new Date(1697524022_000L), weatherDto.getSunrise());
+        assertEquals(new Date(1697561843_000L), weatherDto.getSunset());
+        assertFalse(weatherDto.isStale());
+    }
+
+    @Test
+    public void toStaleWeatherDto_recordedWeather_shouldMarkStale() throws Exception {
+        WeatherDto weatherDto = new WeatherDtoMapper().toStaleWeatherDto(read("weather.json", WeatherApiResponse.class));
+
+        assertTrue(weatherDto.isStale());
+    }
+
+    @Test
+    public void toWeatherDto_forecastSlot_shouldUseLocalHourOfZone() throws Exception {
+        ForecastApiResponse forecast = read("forecast.json", ForecastApiResponse.class);
+
+        // First slot is 21:00 UTC, 10:00 in Auckland
+        WeatherDto utcWeatherDto = new WeatherDtoMapper(ZoneId.of("UTC")).toWeatherDto(forecast, 0);
+        WeatherDto aucklandWeatherDto = new WeatherDtoMapper(ZoneId.of("Pacific/Auckland")).toWeatherDto(forecast, 0);
+
+        assertEquals(TimeOfDay.NIGHT, utcWeatherDto.getTimeOfDay());
+        assertEquals(TimeOfDay.DAY, aucklandWeatherDto.getTimeOfDay());
+        assertEquals(new Date(1697576400_000L), utcWeatherDto.getDate());
+        assertEquals(WeatherCondition.CLEAR, utcWeatherDto.getWeatherCondition());
+        assertEquals("clear sky", utcWeatherDto.getDescription());
+        assertEquals(9.28, utcWeatherDto.getTemperature(), 1e-6);
+    }
+
+    @Test
+    public void getWeatherConditionForCode_codes_shouldClassifyByGroup() {
+        assertEquals(WeatherCondition.THUNDERSTORM, WeatherCondition.getWeatherConditionForCode(211));
+        assertEquals(WeatherCondition.DRIZZLE, WeatherCondition.getWeatherConditionForCode(311));
+        assertEquals(WeatherCondition.RAIN, WeatherCondition.getWeatherConditionForCode(501));
+        assertEquals(WeatherCondition.SNOW, WeatherCondition.getWeatherConditionForCode(602));
+        assertEquals(WeatherCondition.ATMOSPHERE, WeatherCondition.getWeatherConditionForCode(741));
+        assertEquals(WeatherCondition.CLEAR, WeatherCondition.getWeatherConditionForCode(800));
+        assertEquals(WeatherCondition.CLOUDS, WeatherCondition.getWeatherConditionForCode(804));
+        assertEquals(WeatherCondition.UNDEFINED, WeatherCondition.getWeatherConditionForCode(0));
+        assertEquals(WeatherCondition.UNDEFINED, WeatherCondition.getWeatherConditionForCode(1200));
+        assertEquals(WeatherCondition.UNDEFINED, WeatherCondition.getWeatherConditionForCode((Integer) null));
+    }
+
+    private <T> T read(String fileName, Class<T> type) throws Exception {
+        try (InputStream inputStream = getClass().getResourceAsStream("/openweather/" + fileName)) {
+            return objectMapper.readValue(inputStream, type);
+        }
+    }
+}
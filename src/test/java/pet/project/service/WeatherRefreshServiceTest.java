@@ -0,0 +1,133 @@
+package pet.project.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pet.project.dao.LocationDao;
+import pet.project.model.Location;
+import pet.project.model.api.ForecastApiResponse;
+import pet.project.model.api.WeatherApiResponse;
+import pet.project.model.dto.WeatherDto;
+import pet.project.service.cache.ForecastCache;
+import pet.project.service.cache.LocationKey;
+import pet.project.service.cache.LocationPopularity;
+import pet.project.service.cache.TtlCache;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherRefreshServiceTest {
+    private static final Location FIRST = location(1L, 10);
+    private static final Location SECOND = location(2L, 20);
+    private static final Location THIRD = location(3L, 30);
+
+    @Mock
+    private LocationDao locationDao;
+    @Mock
+    private WeatherApiService weatherApiService;
+    @Mock
+    private TtlCache<LocationKey, WeatherApiResponse> weatherCache;
+    @Mock
+    private ForecastCache forecastCache;
+    @Mock
+    private ForecastService forecastService;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final Set<LocationKey> freshWeather = new HashSet<>();
+    private WeatherRefreshService weatherRefreshService;
+
+    @BeforeEach
+    public void setUp() {
+        weatherRefreshService = new WeatherRefreshService(
+                locationDao, weatherApiService, weatherCache, forecastCache, forecastService, new LocationPopularity(), nanoTime::get
+        );
+    }
+
+    @Test
+    public void refreshNext_planningIntervalPassedWithQueueNotDrained_shouldReplanByNewRank() {
+        stubWeatherRefresh();
+        when(forecastCache.expiresWithin(any(), any())).thenReturn(false);
+        when(locationDao.findTrackedWithSubscriberCount())
+                .thenReturn(subscriberCounts(FIRST, 5L, SECOND, 1L))
+                .thenReturn(subscriberCounts(FIRST, 5L, SECOND, 1L, THIRD, 10L));
+
+        weatherRefreshService.refreshNext();
+        nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+        weatherRefreshService.refreshNext();
+
+        verify(locationDao, times(2)).findTrackedWithSubscriberCount();
+        verify(weatherApiService).refreshWeatherForLocationAsync(FIRST);
+        verify(weatherApiService).refreshWeatherForLocationAsync(THIRD);
+        verify(weatherApiService, never()).refreshWeatherForLocationAsync(SECOND);
+        assertEquals(1, weatherRefreshService.getPendingCount());
+    }
+
+    @Test
+    public void refreshNext_entryRefreshedAfterPlanning_shouldSkipItWithoutCall() {
+        stubWeatherRefresh();
+        when(forecastCache.expiresWithin(any(), any())).thenReturn(false);
+        when(locationDao.findTrackedWithSubscriberCount()).thenReturn(subscriberCounts(FIRST, 5L, SECOND, 1L));
+
+        weatherRefreshService.refreshNext();
+        freshWeather.add(LocationKey.of(SECOND));
+        weatherRefreshService.refreshNext();
+
+        verify(locationDao).findTrackedWithSubscriberCount();
+        verify(weatherApiService).refreshWeatherForLocationAsync(FIRST);
+        verify(weatherApiService, never()).refreshWeatherForLocationAsync(SECOND);
+        assertEquals(0, weatherRefreshService.getPendingCount());
+    }
+
+    @Test
+    public void refreshNext_forecastDue_shouldCacheForecastWithBuiltDtos() {
+        ForecastApiResponse forecast = new ForecastApiResponse();
+        List<WeatherDto> hourlyForecast = List.of(new WeatherDto());
+        when(weatherCache.expiresWithin(any(), any())).thenReturn(false);
+        when(forecastCache.expiresWithin(any(), any())).thenReturn(true);
+        when(locationDao.findTrackedWithSubscriberCount()).thenReturn(subscriberCounts(FIRST, 1L));
+        when(weatherApiService.getForecastForLocationAsync(FIRST)).thenReturn(CompletableFuture.completedFuture(forecast));
+        when(forecastService.getHourlyForecast(forecast)).thenReturn(hourlyForecast);
+        when(forecastService.getDailyForecast(forecast)).thenReturn(List.of());
+
+        weatherRefreshService.refreshNext();
+
+        verify(forecastCache).put(eq(FIRST), argThat(cachedForecast -> cachedForecast.getForecastApiResponse() == forecast
+                && cachedForecast.getHourlyForecast().equals(hourlyForecast)));
+    }
+
+    private void stubWeatherRefresh() {
+        when(weatherCache.expiresWithin(any(), any()))
+                .thenAnswer(invocation -> !freshWeather.contains(invocation.<LocationKey>getArgument(0)));
+        when(weatherApiService.refreshWeatherForLocationAsync(any())).thenAnswer(invocation -> {
+            freshWeather.add(LocationKey.of(invocation.<Location>getArgument(0)));
+            return CompletableFuture.completedFuture(new WeatherApiResponse());
+        });
+    }
+
+    private static Map<Location, Long> subscriberCounts(Object... locationsAndCounts) {
+        Map<Location, Long> subscriberCounts = new LinkedHashMap<>();
+        for (int i = 0; i < locationsAndCounts.length; i += 2) {
+            subscriberCounts.put((Location) locationsAndCounts[i], (Long) locationsAndCounts[i + 1]);
+        }
+        return subscriberCounts;
+    }
+
+    private static Location location(Long id, double latitude) {
+        Location location = new Location("Location " + id, List.of(), latitude, latitude);
+        location.setId(id);
+        return location;
+    }
+}
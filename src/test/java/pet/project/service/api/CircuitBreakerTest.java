@@ -0,0 +1,120 @@
+package pet.project.service.api;
+
+import org.junit.jupiter.api.Test;
+import pet.project.exception.api.CircuitOpenException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(
+            4, 2, 50, Duration.ofSeconds(1), Duration.ofSeconds(10),
+            throwable -> !(throwable instanceof IllegalArgumentException), nanoTime::get
+    );
+
+    @Test
+    public void execute_successfulCalls_shouldStayClosed() {
+        circuitBreaker.execute(() -> CompletableFuture.completedFuture("value")).join();
+        circuitBreaker.execute(() -> CompletableFuture.completedFuture("value")).join();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void execute_failureRateReached_shouldOpenAndRejectCalls() {
+        circuitBreaker.execute(() -> CompletableFuture.completedFuture("value"));
+        circuitBreaker.execute(() -> CompletableFuture.failedFuture(new IllegalStateException()));
+
+        CompletableFuture<String> rejected = circuitBreaker.execute(() -> CompletableFuture.completedFuture("value"));
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(CircuitOpenException.class, exception.getCause());
+        assertEquals(1, circuitBreaker.getRejectedCount());
+    }
+
+    @Test
+    public void execute_errorsNotCountedAsFailures_shouldStayClosed() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.execute(() -> CompletableFuture.failedFuture(new IllegalArgumentException()));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void execute_circuitIsOpen_shouldNotRequestAdmission() {
+        openCircuit();
+        AtomicBoolean isAdmissionRequested = new AtomicBoolean();
+
+        CompletableFuture<String> rejected = circuitBreaker.execute(
+                () -> {
+                    isAdmissionRequested.set(true);
+                    return CompletableFuture.completedFuture(null);
+                },
+                () -> CompletableFuture.completedFuture("value")
+        );
+
+        assertThrows(CompletionException.class, rejected::join);
+        assertFalse(isAdmissionRequested.get());
+    }
+
+    @Test
+    public void execute_trialAdmissionRefused_shouldLetNextCallBeTrial() {
+        openCircuit();
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        circuitBreaker.execute(
+                () -> CompletableFuture.failedFuture(new IllegalStateException()),
+                () -> CompletableFuture.completedFuture("value")
+        );
+        String value = circuitBreaker.execute(() -> CompletableFuture.completedFuture("value")).join();
+
+        assertEquals("value", value);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void execute_trialCallSucceeded_shouldCloseThroughHalfOpen() {
+        openCircuit();
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        CompletableFuture<String> trial = new CompletableFuture<>();
+        circuitBreaker.execute(() -> trial);
+        CompletableFuture<String> concurrent = circuitBreaker.execute(() -> CompletableFuture.completedFuture("value"));
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertThrows(CompletionException.class, concurrent::join);
+
+        trial.complete("value");
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getOpenedCount());
+    }
+
+    @Test
+    public void execute_trialCallFailed_shouldOpenAgain() {
+        openCircuit();
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        circuitBreaker.execute(() -> CompletableFuture.failedFuture(new IllegalStateException()));
+        CompletableFuture<String> rejected = circuitBreaker.execute(() -> CompletableFuture.completedFuture("value"));
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CompletionException.class, rejected::join);
+        assertEquals(2, circuitBreaker.getOpenedCount());
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.execute(() -> CompletableFuture.failedFuture(new IllegalStateException()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
@@ -0,0 +1,79 @@
+package pet.project.service.api;
+
+import org.junit.jupiter.api.Test;
+import pet.project.exception.api.RateLimitExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    @Test
+    public void acquire_tokensAvailable_shouldGrantImmediately() {
+        RateLimiter rateLimiter = new RateLimiter(60, 2);
+
+        assertTrue(rateLimiter.acquire(CallPriority.INTERACTIVE).isDone());
+        assertTrue(rateLimiter.acquire(CallPriority.BACKGROUND).isDone());
+        assertEquals(1, rateLimiter.getGrantedCount(CallPriority.INTERACTIVE));
+        assertEquals(1, rateLimiter.getGrantedCount(CallPriority.BACKGROUND));
+    }
+
+    @Test
+    public void acquire_bucketIsEmpty_shouldServeHigherPriorityFirst() {
+        // One token every 100 millis
+        RateLimiter rateLimiter = new RateLimiter(600, 1);
+        rateLimiter.acquire(CallPriority.INTERACTIVE).join();
+        ConcurrentLinkedQueue<CallPriority> grantOrder = new ConcurrentLinkedQueue<>();
+
+        CompletableFuture<Void> background = rateLimiter.acquire(CallPriority.BACKGROUND)
+                .thenRun(() -> grantOrder.add(CallPriority.BACKGROUND));
+        CompletableFuture<Void> search = rateLimiter.acquire(CallPriority.SEARCH)
+                .thenRun(() -> grantOrder.add(CallPriority.SEARCH));
+        CompletableFuture<Void> interactive = rateLimiter.acquire(CallPriority.INTERACTIVE)
+                .thenRun(() -> grantOrder.add(CallPriority.INTERACTIVE));
+
+        CompletableFuture.allOf(background, search, interactive).orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertArrayEquals(
+                new CallPriority[]{CallPriority.INTERACTIVE, CallPriority.SEARCH, CallPriority.BACKGROUND},
+                grantOrder.toArray()
+        );
+    }
+
+    @Test
+    public void acquire_queueIsFull_shouldRejectCall() {
+        // The bucket is not refilled during the test
+        RateLimiter rateLimiter = new RateLimiter(1, 1);
+        rateLimiter.acquire(CallPriority.BACKGROUND).join();
+
+        for (int i = 0; i < CallPriority.BACKGROUND.getQueueLimit(); i++) {
+            rateLimiter.acquire(CallPriority.BACKGROUND);
+        }
+        CompletableFuture<Void> rejected = rateLimiter.acquire(CallPriority.BACKGROUND);
+
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RateLimitExceededException.class, exception.getCause());
+        assertEquals(1, rateLimiter.getRejectedCount(CallPriority.BACKGROUND));
+        assertEquals(CallPriority.BACKGROUND.getQueueLimit(), rateLimiter.getQueuedCount(CallPriority.BACKGROUND));
+    }
+
+    @Test
+    public void shutdown_callsQueued_shouldFailQueuedAndLaterCalls() {
+        RateLimiter rateLimiter = new RateLimiter(1, 1);
+        rateLimiter.acquire(CallPriority.BACKGROUND).join();
+        CompletableFuture<Void> queued = rateLimiter.acquire(CallPriority.BACKGROUND);
+
+        rateLimiter.shutdown();
+        CompletableFuture<Void> later = rateLimiter.acquire(CallPriority.INTERACTIVE);
+
+        CompletionException exception = assertThrows(CompletionException.class, queued::join);
+        assertInstanceOf(RateLimitExceededException.class, exception.getCause());
+        assertThrows(CompletionException.class, later::join);
+        assertEquals(0, rateLimiter.getQueuedCount(CallPriority.BACKGROUND));
+        assertEquals(1, rateLimiter.getRejectedCount(CallPriority.BACKGROUND));
+        assertEquals(1, rateLimiter.getRejectedCount(CallPriority.INTERACTIVE));
+    }
+}
@@ -0,0 +1,70 @@
+package pet.project.service.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void execute_sameKeyInFlight_shouldShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        upstream.complete("value");
+
+        assertEquals("value", first.join());
+        assertEquals("value", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.getExecutedCount());
+        assertEquals(1, singleFlight.getCoalescedCount());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    public void execute_previousCallCompleted_shouldStartNewCall() {
+        singleFlight.execute("key", () -> CompletableFuture.completedFuture("first")).join();
+        String result = singleFlight.execute("key", () -> CompletableFuture.completedFuture("second")).join();
+
+        assertEquals("second", result);
+        assertEquals(2, singleFlight.getExecutedCount());
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    public void execute_callerTimedOut_shouldNotAffectOtherCallers() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> impatient = singleFlight.execute("key", () -> upstream)
+                .orTimeout(1, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> patient = singleFlight.execute("key", () -> upstream);
+
+        assertThrows(Exception.class, impatient::join);
+        upstream.complete("value");
+
+        assertEquals("value", patient.join());
+    }
+
+    @Test
+    public void execute_callThrows_shouldCompleteExceptionallyAndRelease() {
+        CompletableFuture<String> result = singleFlight.execute("key", () -> {
+            throw new IllegalStateException();
+        });
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+}
@@ -0,0 +1,56 @@
+package pet.project.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import pet.project.model.api.ForecastApiResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ForecastCacheTest {
+    private static final Instant FIRST_SLOT = Instant.ofEpochSecond(1697576400);
+
+    @Test
+    public void getTimeToLive_firstSlotInFuture_shouldExpireAtFirstSlot() throws Exception {
+        ForecastCache forecastCache = cacheAt(FIRST_SLOT.minus(Duration.ofMinutes(50)));
+
+        assertEquals(Optional.of(Duration.ofMinutes(50)), forecastCache.getTimeToLive(forecast()));
+    }
+
+    @Test
+    public void getTimeToLive_firstSlotPassed_shouldExpireAtNextSlot() throws Exception {
+        ForecastCache forecastCache = cacheAt(FIRST_SLOT.plus(Duration.ofHours(4)));
+
+        assertEquals(Optional.of(Duration.ofHours(2)), forecastCache.getTimeToLive(forecast()));
+    }
+
+    @Test
+    public void getTimeToLive_nextSlotTooClose_shouldUseMinimumTimeToLive() throws Exception {
+        ForecastCache forecastCache = cacheAt(FIRST_SLOT.minus(Duration.ofSeconds(10)));
+
+        assertEquals(Optional.of(Duration.ofMinutes(1)), forecastCache.getTimeToLive(forecast()));
+    }
+
+    @Test
+    public void getTimeToLive_emptyForecast_shouldReturnEmpty() {
+        ForecastCache forecastCache = cacheAt(FIRST_SLOT);
+
+        assertEquals(Optional.empty(), forecastCache.getTimeToLive(new ForecastApiResponse()));
+    }
+
+    private static ForecastCache cacheAt(Instant now) {
+        return new ForecastCache(10, Duration.ofMinutes(1), Clock.fixed(now, ZoneId.systemDefault()));
+    }
+
+    private static ForecastApiResponse forecast() throws Exception {
+        return new ObjectMapper().readValue(
+                "{\"list\":[{\"dt\":" + FIRST_SLOT.getEpochSecond() + "}]}",
+                ForecastApiResponse.class
+        );
+    }
+}
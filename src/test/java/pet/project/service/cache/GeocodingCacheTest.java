@@ -0,0 +1,60 @@
+package pet.project.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pet.project.model.api.LocationApiResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeocodingCacheTest {
+    private GeocodingCache geocodingCache;
+
+    @BeforeEach
+    public void setUp() {
+        geocodingCache = new GeocodingCache(100, Duration.ofHours(1), Duration.ofMinutes(1), 5);
+    }
+
+    @Test
+    public void normalize_differentSpellings_shouldReturnSameQuery() {
+        assertEquals("london", GeocodingCache.normalize(" London "));
+        assertEquals("london", GeocodingCache.normalize("ＬＯＮＤＯＮ"));
+        assertEquals("new york,us", GeocodingCache.normalize("New   York , US"));
+    }
+
+    @Test
+    public void get_emptyResultCached_shouldReturnEmptyList() {
+        geocodingCache.put("nowhere", List.of());
+
+        assertEquals(Optional.of(List.of()), geocodingCache.get("nowhere"));
+    }
+
+    @Test
+    public void get_countryQueryWithCompleteNameResults_shouldFilterByCountry() throws Exception {
+        LocationApiResponse britishLondon = location("London", "GB");
+        LocationApiResponse canadianLondon = location("London", "CA");
+        geocodingCache.put("london", List.of(britishLondon, canadianLondon));
+
+        assertEquals(Optional.of(List.of(canadianLondon)), geocodingCache.get("london,ca"));
+    }
+
+    @Test
+    public void get_countryQueryWithTruncatedNameResults_shouldReturnEmpty() throws Exception {
+        LocationApiResponse location = location("London", "GB");
+        geocodingCache.put("london", List.of(location, location, location, location, location));
+
+        assertTrue(geocodingCache.get("london,ca").isEmpty());
+    }
+
+    private static LocationApiResponse location(String name, String country) throws Exception {
+        return new ObjectMapper().readValue(
+                "{\"name\":\"" + name + "\",\"country\":\"" + country + "\"}",
+                LocationApiResponse.class
+        );
+    }
+}
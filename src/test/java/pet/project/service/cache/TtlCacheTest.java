@@ -0,0 +1,160 @@
+package pet.project.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TtlCacheTest {
+    private final AtomicLong ticker = new AtomicLong();
+
+    private TtlCache<String, String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new TtlCache<>(2, Duration.ofNanos(100), ticker::get);
+    }
+
+    @Test
+    public void get_emptyCache_shouldReturnEmptyAndCountMiss() {
+        assertEquals(Optional.empty(), cache.get("key"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void get_freshEntry_shouldReturnValueAndCountHit() {
+        cache.put("key", "value");
+        ticker.set(99);
+
+        assertEquals(Optional.of("value"), cache.get("key"));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void get_expiredEntry_shouldReturnEmpty() {
+        cache.put("key", "value");
+        ticker.set(100);
+
+        assertEquals(Optional.empty(), cache.get("key"));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void put_expiredEntry_shouldRefreshFreshness() {
+        cache.put("key", "old");
+        ticker.set(150);
+        cache.put("key", "new");
+
+        assertEquals(Optional.of("new"), cache.get("key"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void put_cacheIsFull_shouldEvictOldestEntry() {
+        cache.put("first", "1");
+        cache.put("second", "2");
+        cache.put("third", "3");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(Optional.empty(), cache.get("first"));
+        assertEquals(Optional.of("3"), cache.get("third"));
+    }
+
+    @Test
+    public void invalidate_presentEntry_shouldRemoveEntry() {
+        cache.put("key", "value");
+
+        cache.invalidate("key");
+
+        assertEquals(Optional.empty(), cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void putIfNotInvalidated_notInvalidatedSinceStamp_shouldPutEntry() {
+        long invalidationStamp = cache.getInvalidationStamp("key");
+
+        assertTrue(cache.putIfNotInvalidated("key", "value", invalidationStamp));
+        assertEquals(Optional.of("value"), cache.get("key"));
+    }
+
+    @Test
+    public void putIfNotInvalidated_invalidatedSinceStamp_shouldNotPutEntry() {
+        long invalidationStamp = cache.getInvalidationStamp("key");
+        cache.invalidate("key");
+
+        assertFalse(cache.putIfNotInvalidated("key", "stale", invalidationStamp));
+        assertEquals(Optional.empty(), cache.get("key"));
+        assertEquals(0, cache.getQueuedKeyCount());
+    }
+
+    @Test
+    public void put_invalidatedAndInsertedAgain_shouldEvictByNewInsertion() {
+        cache.put("first", "1");
+        cache.put("second", "2");
+        cache.invalidate("first");
+        cache.put("first", "1");
+
+        cache.put("third", "3");
+
+        assertEquals(Optional.empty(), cache.get("second"));
+        assertEquals(Optional.of("1"), cache.get("first"));
+        assertEquals(Optional.of("3"), cache.get("third"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void invalidate_manyKeys_shouldKeepQueueBounded() {
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "value");
+            cache.invalidate("key" + i);
+        }
+
+        assertEquals(0, cache.size());
+        assertTrue(cache.getQueuedKeyCount() <= 3);
+    }
+
+    @Test
+    public void invalidate_concurrentWithPuts_shouldKeepSizeWithinMaximum() throws Exception {
+        TtlCache<Integer, Integer> concurrentCache = new TtlCache<>(100, Duration.ofMinutes(1));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 100_000; i++) {
+                        int key = random.nextInt(300);
+                        if (random.nextBoolean()) {
+                            concurrentCache.put(key, key);
+                        } else {
+                            concurrentCache.invalidate(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(concurrentCache.size() <= 100);
+        assertTrue(concurrentCache.getQueuedKeyCount() <= concurrentCache.size() + 2 * 100 + 4);
+    }
+}
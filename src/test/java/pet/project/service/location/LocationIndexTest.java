@@ -0,0 +1,70 @@
+package pet.project.service.location;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pet.project.model.dto.LocationDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocationIndexTest {
+    private static final LocationDto LONDON = new LocationDto(1L, "London", 51.50735, -0.12776);
+    private static final LocationDto GREENWICH = new LocationDto(2L, "Greenwich", 51.48251, -0.00754);
+    private static final LocationDto FIJI = new LocationDto(3L, "Taveuni", -16.85, 179.999);
+
+    private LocationIndex locationIndex;
+
+    @BeforeEach
+    public void setUp() {
+        locationIndex = new LocationIndex(100);
+        locationIndex.addAll(List.of(LONDON, GREENWICH, FIJI));
+    }
+
+    @Test
+    public void findNearest_coordinatesDifferInFifthDecimal_shouldReturnExistingLocation() {
+        assertEquals(Optional.of(LONDON), locationIndex.findNearest(51.50739, -0.12771));
+        assertEquals(1, locationIndex.getMatchCount());
+    }
+
+    @Test
+    public void findNearest_locationOutsideOfRadius_shouldReturnEmpty() {
+        assertTrue(locationIndex.findNearest(51.51, -0.12776).isEmpty());
+        assertEquals(0, locationIndex.getMatchCount());
+    }
+
+    @Test
+    public void findNearest_acrossAntimeridian_shouldReturnLocation() {
+        assertEquals(Optional.of(FIJI), locationIndex.findNearest(-16.85, -179.9995, 1_000));
+    }
+
+    @Test
+    public void findWithin_boundingBox_shouldReturnOnlyLocationsInside() {
+        assertEquals(Set.of(LONDON, GREENWICH), Set.copyOf(locationIndex.findWithin(51.4, -0.2, 51.6, 0.1)));
+        assertEquals(List.of(GREENWICH), locationIndex.findWithin(51.48, -0.01, 51.49, 0.0));
+        assertEquals(List.of(FIJI), locationIndex.findWithin(-17, 179.9, -16, -179.9));
+    }
+
+    @Test
+    public void add_movedLocation_shouldReplaceOldPosition() {
+        LocationDto movedLondon = new LocationDto(1L, "London", 40.0, 40.0);
+
+        locationIndex.add(movedLondon);
+
+        assertTrue(locationIndex.findNearest(51.50735, -0.12776).isEmpty());
+        assertEquals(Optional.of(movedLondon), locationIndex.findNearest(40.0, 40.0));
+        assertEquals(3, locationIndex.size());
+    }
+
+    @Test
+    public void remove_indexedLocation_shouldNotBeFoundAnymore() {
+        locationIndex.remove(2L);
+
+        assertTrue(locationIndex.findNearest(51.48251, -0.00754).isEmpty());
+        assertEquals(Optional.of(LONDON), locationIndex.findNearest(51.50735, -0.12776));
+        assertEquals(2, locationIndex.size());
+    }
+}
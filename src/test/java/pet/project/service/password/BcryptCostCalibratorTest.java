@@ -0,0 +1,46 @@
+package pet.project.service.password;
+
+import com.password4j.BcryptFunction;
+import com.password4j.Password;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BcryptCostCalibratorTest {
+    @Test
+    public void calibrate_targetAllowsMoreWork_shouldRaiseCostByDoublings() {
+        long measuredNanos = Duration.ofMillis(50).toNanos();
+
+        int cost = BcryptCostCalibrator.calibrate(Duration.ofMillis(250), measuredCost -> measuredNanos);
+
+        assertEquals(BcryptCostCalibrator.MIN_COST + 2, cost);
+    }
+
+    @Test
+    public void calibrate_noisyMeasurements_shouldUseFastestRun() {
+        long[] measurements = {400, 120, 100, 300, 500};
+        int[] run = {0};
+
+        int cost = BcryptCostCalibrator.calibrate(
+                Duration.ofMillis(800),
+                measuredCost -> Duration.ofMillis(measurements[run[0]++]).toNanos()
+        );
+
+        assertEquals(BcryptCostCalibrator.MIN_COST + 3, cost);
+    }
+
+    @Test
+    public void calibrate_slowOrFastHardware_shouldStayWithinBounds() {
+        assertEquals(BcryptCostCalibrator.MIN_COST, BcryptCostCalibrator.calibrate(Duration.ofMillis(10), cost -> Duration.ofMillis(80).toNanos()));
+        assertEquals(BcryptCostCalibrator.MAX_COST, BcryptCostCalibrator.calibrate(Duration.ofSeconds(10), cost -> Duration.ofMillis(1).toNanos()));
+    }
+
+    @Test
+    public void getCost_bcryptHash_shouldReadCostFromHash() {
+        String hash = Password.hash("password").with(BcryptFunction.getInstance(5)).getResult();
+
+        assertEquals(5, BcryptCostCalibrator.getCost(hash));
+    }
+}
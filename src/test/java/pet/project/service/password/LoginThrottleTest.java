@@ -0,0 +1,89 @@
+package pet.project.service.password;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+    private MutableClock clock;
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock();
+        loginThrottle = new LoginThrottle(2, 3, Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    public void tryAcquire_concurrentChecksOverLimit_shouldReject() {
+        assertTrue(loginThrottle.tryAcquire("login"));
+        assertTrue(loginThrottle.tryAcquire("login"));
+
+        assertFalse(loginThrottle.tryAcquire("login"));
+        assertTrue(loginThrottle.tryAcquire("other"));
+        assertEquals(1, loginThrottle.getThrottledCount());
+    }
+
+    @Test
+    public void tryAcquire_repeatedFailures_shouldLockUntilWindowPasses() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(loginThrottle.tryAcquire("login"));
+            loginThrottle.release("login", false);
+        }
+
+        assertFalse(loginThrottle.tryAcquire("login"));
+
+        clock.advance(Duration.ofMinutes(5));
+        assertTrue(loginThrottle.tryAcquire("login"));
+    }
+
+    @Test
+    public void release_successfulCheck_shouldForgetFailures() {
+        loginThrottle.tryAcquire("login");
+        loginThrottle.release("login", false);
+        loginThrottle.tryAcquire("login");
+        loginThrottle.release("login", true);
+
+        assertEquals(0, loginThrottle.getTrackedCount());
+    }
+
+    @Test
+    public void release_checkNotRun_shouldNotCountFailure() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(loginThrottle.tryAcquire("login"));
+            loginThrottle.release("login");
+        }
+
+        assertEquals(0, loginThrottle.getTrackedCount());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2023-05-01T12:00:00Z");
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
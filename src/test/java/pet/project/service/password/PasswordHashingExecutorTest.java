@@ -0,0 +1,87 @@
+package pet.project.service.password;
+
+import org.junit.jupiter.api.Test;
+import pet.project.exception.authentication.PasswordHashingRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+    @Test
+    public void execute_idleExecutor_shouldReturnResult() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5));
+
+        assertEquals("hash", executor.execute(() -> "hash"));
+        assertEquals(1, executor.getCompletedCount());
+    }
+
+    @Test
+    public void execute_queueIsFull_shouldRejectImmediately() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5));
+        CountDownLatch isBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> execute(executor, () -> {
+            isBusy.countDown();
+            release.await();
+            return "first";
+        }));
+        assertTrue(isBusy.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> execute(executor, () -> "second"));
+        while (executor.getQueuedCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertThrows(PasswordHashingRejectedException.class, () -> executor.execute(() -> "third"));
+        assertEquals(1, executor.getRejectedCount());
+
+        release.countDown();
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void execute_hashingTooSlow_shouldRejectAfterTimeout() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertThrows(PasswordHashingRejectedException.class, () -> executor.execute(() -> release.await(5, TimeUnit.SECONDS)));
+        assertEquals(1, executor.getTimedOutCount());
+
+        release.countDown();
+    }
+
+    @Test
+    public void shutdown_hashingInProgress_shouldFinishItAndRejectLaterCalls() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5));
+        CountDownLatch isBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> execute(executor, () -> {
+            isBusy.countDown();
+            release.await();
+            return "first";
+        }));
+        assertTrue(isBusy.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(executor::shutdown);
+        release.countDown();
+        shutdown.get(5, TimeUnit.SECONDS);
+
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertThrows(PasswordHashingRejectedException.class, () -> executor.execute(() -> "second"));
+        assertEquals(1, executor.getRejectedCount());
+    }
+
+    private static Object execute(PasswordHashingExecutor executor, Callable<Object> hashing) {
+        try {
+            return executor.execute(hashing);
+        } catch (PasswordHashingRejectedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package pet.project.service.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pet.project.dao.SessionDao;
+import pet.project.model.Session;
+import pet.project.model.User;
+import pet.project.service.cache.SessionCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseSessionStoreTest {
+    @Mock
+    private SessionDao sessionDao;
+
+    private DatabaseSessionStore sessionStore;
+
+    @BeforeEach
+    public void setUp() {
+        sessionStore = new DatabaseSessionStore(sessionDao, new SessionCache(10, Duration.ofMinutes(5)), Duration.ofHours(24));
+    }
+
+    @Test
+    public void findActiveSession_repeatedLookups_shouldQueryDatabaseOnce() {
+        UUID sessionId = UUID.randomUUID();
+        Session session = new Session(sessionId, new User("login", "password"), LocalDateTime.now().plusHours(1));
+        when(sessionDao.findById(sessionId)).thenReturn(Optional.of(session));
+
+        assertEquals(Optional.of(session), sessionStore.findActiveSession(sessionId.toString()));
+        assertEquals(Optional.of(session), sessionStore.findActiveSession(sessionId.toString()));
+
+        verify(sessionDao, times(1)).findById(sessionId);
+    }
+
+    @Test
+    public void findActiveSession_expiredSession_shouldReturnEmpty() {
+        UUID sessionId = UUID.randomUUID();
+        Session session = new Session(sessionId, new User("login", "password"), LocalDateTime.now().minusMinutes(1));
+        when(sessionDao.findById(sessionId)).thenReturn(Optional.of(session));
+
+        assertEquals(Optional.empty(), sessionStore.findActiveSession(sessionId.toString()));
+        assertEquals(Optional.empty(), sessionStore.findActiveSession(sessionId.toString()));
+
+        verify(sessionDao, times(2)).findById(sessionId);
+    }
+
+    @Test
+    public void findActiveSession_sessionExpiredWhileCached_shouldCheckDatabaseAgain() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        Session session = new Session(sessionId, new User("login", "password"), LocalDateTime.now().plusNanos(200_000_000));
+        when(sessionDao.findById(sessionId)).thenReturn(Optional.of(session));
+
+        assertTrue(sessionStore.findActiveSession(sessionId.toString()).isPresent());
+        Thread.sleep(300);
+
+        assertEquals(Optional.empty(), sessionStore.findActiveSession(sessionId.toString()));
+        verify(sessionDao, times(2)).findById(sessionId);
+    }
+
+    @Test
+    public void findActiveSession_malformedCookie_shouldReturnEmptyWithoutQuery() {
+        assertEquals(Optional.empty(), sessionStore.findActiveSession("not-a-session-id"));
+
+        verifyNoInteractions(sessionDao);
+    }
+
+    @Test
+    public void createSession_newSession_shouldBeServedFromCache() {
+        Session session = sessionStore.createSession(new User("login", "password"));
+
+        assertEquals(Optional.of(session), sessionStore.findActiveSession(session.getId().toString()));
+        verify(sessionDao).save(session);
+        verify(sessionDao, never()).findById(any());
+    }
+
+    @Test
+    public void deleteSession_cachedSession_shouldInvalidateCache() {
+        Session session = sessionStore.createSession(new User("login", "password"));
+
+        sessionStore.deleteSession(session.getId().toString(), session);
+
+        assertEquals(Optional.empty(), sessionStore.findActiveSession(session.getId().toString()));
+        verify(sessionDao).delete(session);
+        verify(sessionDao).findById(session.getId());
+    }
+
+    @Test
+    public void findActiveSession_sessionNearExpiry_shouldRenewInMemory() {
+        SessionRenewals sessionRenewals = new SessionRenewals();
+        DatabaseSessionStore renewingStore = createRenewingStore(sessionRenewals);
+        UUID sessionId = UUID.randomUUID();
+        Session session = new Session(sessionId, new User("login", "password"), LocalDateTime.now().plusHours(1));
+        when(sessionDao.findById(sessionId)).thenReturn(Optional.of(session));
+
+        Session renewedSession = renewingStore.findActiveSession(sessionId.toString()).orElseThrow();
+
+        assertTrue(renewedSession.getExpiresAt().isAfter(LocalDateTime.now().plusHours(23)));
+        assertEquals(Optional.of(renewedSession.getExpiresAt()), sessionRenewals.getPendingExpiry(sessionId));
+        assertEquals(Optional.of(renewedSession), renewingStore.findActiveSession(sessionId.toString()));
+        assertEquals(1, sessionRenewals.getRenewedCount());
+        verify(sessionDao, never()).updateSessionExpiries(any());
+    }
+
+    @Test
+    public void findActiveSession_sessionFarFromExpiry_shouldNotRenew() {
+        SessionRenewals sessionRenewals = new SessionRenewals();
+        DatabaseSessionStore renewingStore = createRenewingStore(sessionRenewals);
+        Session session = renewingStore.createSession(new User("login", "password"));
+
+        assertEquals(Optional.of(session), renewingStore.findActiveSession(session.getId().toString()));
+        assertEquals(0, sessionRenewals.getPendingCount());
+    }
+
+    @Test
+    public void findActiveSession_renewalNotFlushed_shouldPreferPendingExpiry() {
+        SessionRenewals sessionRenewals = new SessionRenewals();
+        DatabaseSessionStore renewingStore = createRenewingStore(sessionRenewals);
+        UUID sessionId = UUID.randomUUID();
+        LocalDateTime renewedExpiry = LocalDateTime.now().plusHours(20);
+        sessionRenewals.record(sessionId, renewedExpiry);
+        Session staleSession = new Session(sessionId, new User("login", "password"), LocalDateTime.now().minusMinutes(1));
+        when(sessionDao.findById(sessionId)).thenReturn(Optional.of(staleSession));
+
+        Optional<Session> session = renewingStore.findActiveSession(sessionId.toString());
+
+        assertEquals(Optional.of(renewedExpiry), session.map(Session::getExpiresAt));
+    }
+
+    private DatabaseSessionStore createRenewingStore(SessionRenewals sessionRenewals) {
+        return new DatabaseSessionStore(
+                sessionDao,
+                new SessionCache(10, Duration.ofMinutes(5)),
+                sessionRenewals,
+                Duration.ofHours(24),
+                Duration.ofHours(12)
+        );
+    }
+}
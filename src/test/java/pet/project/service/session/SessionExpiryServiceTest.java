@@ -0,0 +1,69 @@
+package pet.project.service.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pet.project.dao.SessionDao;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionExpiryServiceTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2023-05-01T12:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+    @Mock
+    private SessionDao sessionDao;
+
+    private SessionExpiryService sessionExpiryService;
+
+    @BeforeEach
+    public void setUp() {
+        sessionExpiryService = new SessionExpiryService(sessionDao, 100, 3, CLOCK);
+    }
+
+    @Test
+    public void purgeExpired_shortBatch_shouldStopWithoutBacklog() {
+        when(sessionDao.deleteSessionsExpiredAtTime(NOW, 100)).thenReturn(100, 40);
+
+        sessionExpiryService.purgeExpired();
+
+        verify(sessionDao, times(2)).deleteSessionsExpiredAtTime(NOW, 100);
+        verify(sessionDao, never()).countSessionsExpiredAtTime(any());
+        assertEquals(140, sessionExpiryService.getPurgedCount());
+        assertEquals(2, sessionExpiryService.getBatchCount());
+        assertEquals(0, sessionExpiryService.getBacklog());
+    }
+
+    @Test
+    public void purgeExpired_runBudgetExhausted_shouldReportBacklog() {
+        when(sessionDao.deleteSessionsExpiredAtTime(NOW, 100)).thenReturn(100);
+        when(sessionDao.countSessionsExpiredAtTime(NOW)).thenReturn(2500L);
+
+        sessionExpiryService.purgeExpired();
+
+        verify(sessionDao, times(3)).deleteSessionsExpiredAtTime(NOW, 100);
+        assertEquals(300, sessionExpiryService.getPurgedCount());
+        assertEquals(2500, sessionExpiryService.getBacklog());
+    }
+
+    @Test
+    public void purgeExpired_backlogCleared_shouldResetBacklog() {
+        when(sessionDao.deleteSessionsExpiredAtTime(NOW, 100)).thenReturn(100, 100, 100, 0);
+        when(sessionDao.countSessionsExpiredAtTime(NOW)).thenReturn(50L);
+
+        sessionExpiryService.purgeExpired();
+        assertEquals(50, sessionExpiryService.getBacklog());
+
+        sessionExpiryService.purgeExpired();
+        assertEquals(0, sessionExpiryService.getBacklog());
+    }
+}
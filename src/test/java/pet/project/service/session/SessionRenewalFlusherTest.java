@@ -0,0 +1,64 @@
+package pet.project.service.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pet.project.dao.SessionDao;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionRenewalFlusherTest {
+    @Mock
+    private SessionDao sessionDao;
+
+    private SessionRenewals sessionRenewals;
+    private SessionRenewalFlusher sessionRenewalFlusher;
+
+    @BeforeEach
+    public void setUp() {
+        sessionRenewals = new SessionRenewals();
+        sessionRenewalFlusher = new SessionRenewalFlusher(sessionDao, sessionRenewals, 2);
+    }
+
+    @Test
+    public void flush_pendingRenewals_shouldWriteThemInBatches() {
+        for (int i = 0; i < 5; i++) {
+            sessionRenewals.record(UUID.randomUUID(), LocalDateTime.now().plusHours(24));
+        }
+
+        sessionRenewalFlusher.flush();
+
+        verify(sessionDao, times(3)).updateSessionExpiries(anyMap());
+        assertEquals(5, sessionRenewalFlusher.getFlushedCount());
+        assertEquals(3, sessionRenewalFlusher.getBatchCount());
+        assertEquals(0, sessionRenewals.getPendingCount());
+    }
+
+    @Test
+    public void flush_noRenewals_shouldNotTouchDatabase() {
+        sessionRenewalFlusher.flush();
+
+        verifyNoInteractions(sessionDao);
+    }
+
+    @Test
+    public void flush_databaseFailure_shouldKeepRenewalsPending() {
+        UUID sessionId = UUID.randomUUID();
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(24);
+        sessionRenewals.record(sessionId, expiresAt);
+        when(sessionDao.updateSessionExpiries(anyMap())).thenThrow(new RuntimeException("connection refused"));
+
+        assertThrows(RuntimeException.class, () -> sessionRenewalFlusher.flush());
+
+        assertEquals(Optional.of(expiresAt), sessionRenewals.getPendingExpiry(sessionId));
+        assertEquals(0, sessionRenewalFlusher.getFlushedCount());
+    }
+}
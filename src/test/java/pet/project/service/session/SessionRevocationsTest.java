@@ -0,0 +1,83 @@
+package pet.project.service.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pet.project.dao.RevokedSessionDao;
+import pet.project.model.RevokedSession;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionRevocationsTest {
+    private static final Duration SESSION_DURATION = Duration.ofHours(24);
+    private static final Instant NOW = Instant.parse("2023-10-17T12:00:00Z");
+
+    @Mock
+    private RevokedSessionDao revokedSessionDao;
+
+    @Test
+    public void sync_firstRun_shouldLoadRevocationsOfAllUnexpiredTokens() {
+        SessionRevocations sessionRevocations = revocationsAt(NOW);
+        LocalDateTime now = LocalDateTime.ofInstant(NOW, ZoneId.systemDefault());
+        UUID sessionId = UUID.randomUUID();
+        when(revokedSessionDao.findRevokedSince(now.minus(SESSION_DURATION)))
+                .thenReturn(List.of(new RevokedSession(sessionId, now.minusHours(1), now.plusHours(23))));
+
+        sessionRevocations.sync();
+
+        assertTrue(sessionRevocations.isRevoked(sessionId));
+        verify(revokedSessionDao).deleteExpiredAtTime(now);
+    }
+
+    @Test
+    public void sync_afterPreviousSync_shouldReadOnlyRecentRevocationsWithOverlap() {
+        SessionRevocations sessionRevocations = revocationsAt(NOW);
+        LocalDateTime now = LocalDateTime.ofInstant(NOW, ZoneId.systemDefault());
+        when(revokedSessionDao.findRevokedSince(any())).thenReturn(List.of());
+
+        sessionRevocations.sync();
+        sessionRevocations.sync();
+
+        verify(revokedSessionDao).findRevokedSince(now.minusMinutes(1));
+    }
+
+    @Test
+    public void sync_expiredRevocation_shouldBeDropped() {
+        SessionRevocations sessionRevocations = revocationsAt(NOW);
+        LocalDateTime now = LocalDateTime.ofInstant(NOW, ZoneId.systemDefault());
+        UUID sessionId = UUID.randomUUID();
+        sessionRevocations.revoke(sessionId, now.minusSeconds(1));
+        when(revokedSessionDao.findRevokedSince(any())).thenReturn(List.of());
+
+        sessionRevocations.sync();
+
+        assertFalse(sessionRevocations.isRevoked(sessionId));
+        assertEquals(0, sessionRevocations.getRevokedCount());
+    }
+
+    @Test
+    public void revoke_databaseFailure_shouldNotRevokeLocally() {
+        SessionRevocations sessionRevocations = revocationsAt(NOW);
+        UUID sessionId = UUID.randomUUID();
+        doThrow(new RuntimeException("connection refused")).when(revokedSessionDao).save(any());
+
+        assertThrows(RuntimeException.class, () -> sessionRevocations.revoke(sessionId, LocalDateTime.now().plusHours(1)));
+        assertFalse(sessionRevocations.isRevoked(sessionId));
+    }
+
+    private SessionRevocations revocationsAt(Instant now) {
+        return new SessionRevocations(revokedSessionDao, SESSION_DURATION, Clock.fixed(now, ZoneId.systemDefault()));
+    }
+}
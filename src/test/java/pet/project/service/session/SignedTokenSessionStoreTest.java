@@ -0,0 +1,93 @@
+package pet.project.service.session;
+
+import org.junit.jupiter.api.Test;
+import pet.project.dao.RevokedSessionDao;
+import pet.project.model.Session;
+import pet.project.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class SignedTokenSessionStoreTest {
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final Instant NOW = Instant.parse("2023-10-17T12:00:00Z");
+
+    @Test
+    public void findActiveSession_issuedToken_shouldRestoreSessionWithoutDatabase() {
+        SignedTokenSessionStore sessionStore = storeAt(NOW);
+        Session session = sessionStore.createSession(new User(42L, "login.with.dots", "hash"));
+
+        Session restoredSession = sessionStore.findActiveSession(sessionStore.getCookieValue(session)).orElseThrow();
+
+        assertEquals(session.getId(), restoredSession.getId());
+        assertEquals(session.getExpiresAt(), restoredSession.getExpiresAt());
+        assertEquals(42L, restoredSession.getUser().getId());
+        assertEquals("login.with.dots", restoredSession.getUser().getLogin());
+        assertNull(restoredSession.getUser().getPassword());
+    }
+
+    @Test
+    public void findActiveSession_tamperedToken_shouldReturnEmpty() {
+        SignedTokenSessionStore sessionStore = storeAt(NOW);
+        String token = sessionStore.getCookieValue(sessionStore.createSession(new User(42L, "login", "hash")));
+
+        String tamperedToken = token.replaceFirst("\\.42\\.", ".43.");
+
+        assertNotEquals(token, tamperedToken);
+        assertEquals(Optional.empty(), sessionStore.findActiveSession(tamperedToken));
+        assertEquals(Optional.empty(), sessionStore.findActiveSession("garbage"));
+        assertEquals(Optional.empty(), sessionStore.findActiveSession("a.b.c.d.e"));
+    }
+
+    @Test
+    public void findActiveSession_tokenOfOtherSecret_shouldReturnEmpty() {
+        SignedTokenSessionStore sessionStore = storeAt(NOW);
+        SignedTokenSessionStore otherStore = new SignedTokenSessionStore(
+                "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8),
+                Duration.ofHours(24),
+                new SessionRevocations(mock(RevokedSessionDao.class), Duration.ofHours(24), Clock.fixed(NOW, ZoneId.systemDefault())),
+                Clock.fixed(NOW, ZoneId.systemDefault())
+        );
+        String token = otherStore.getCookieValue(otherStore.createSession(new User(42L, "login", "hash")));
+
+        assertEquals(Optional.empty(), sessionStore.findActiveSession(token));
+    }
+
+    @Test
+    public void findActiveSession_expiredToken_shouldReturnEmpty() {
+        String token = storeAt(NOW).getCookieValue(storeAt(NOW).createSession(new User(42L, "login", "hash")));
+
+        assertTrue(storeAt(NOW.plus(Duration.ofHours(23))).findActiveSession(token).isPresent());
+        assertEquals(Optional.empty(), storeAt(NOW.plus(Duration.ofHours(25))).findActiveSession(token));
+    }
+
+    @Test
+    public void deleteSession_signedOut_shouldRejectTokenAndStoreRevocation() {
+        Clock clock = Clock.fixed(NOW, ZoneId.systemDefault());
+        RevokedSessionDao revokedSessionDao = mock(RevokedSessionDao.class);
+        SessionRevocations sessionRevocations = new SessionRevocations(revokedSessionDao, Duration.ofHours(24), clock);
+        SignedTokenSessionStore sessionStore = new SignedTokenSessionStore(SECRET, Duration.ofHours(24), sessionRevocations, clock);
+        Session session = sessionStore.createSession(new User(42L, "login", "hash"));
+        String token = sessionStore.getCookieValue(session);
+
+        sessionStore.deleteSession(token, session);
+
+        assertEquals(Optional.empty(), sessionStore.findActiveSession(token));
+        assertEquals(1, sessionRevocations.getRevokedCount());
+        verify(revokedSessionDao).save(argThat(revokedSession -> revokedSession.getId().equals(session.getId())));
+    }
+
+    private static SignedTokenSessionStore storeAt(Instant now) {
+        Clock clock = Clock.fixed(now, ZoneId.systemDefault());
+        SessionRevocations sessionRevocations = new SessionRevocations(mock(RevokedSessionDao.class), Duration.ofHours(24), clock);
+        return new SignedTokenSessionStore(SECRET, Duration.ofHours(24), sessionRevocations, clock);
+    }
+}
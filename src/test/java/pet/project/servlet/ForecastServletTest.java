@@ -22,9 +22,14 @@ import pet.project.model.User;
 import pet.project.model.api.ForecastApiResponse;
 import pet.project.model.dto.WeatherDto;
 import pet.project.service.ForecastService;
+import pet.project.service.SessionService;
 import pet.project.service.WeatherApiService;
+import pet.project.service.cache.CachedForecast;
+import pet.project.service.cache.ForecastCache;
+import pet.project.service.cache.SessionCache;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -44,6 +49,8 @@ class ForecastServletTest {
     private WeatherApiService weatherApiService;
     @Mock
     private ForecastService forecastService;
+    @Mock
+    private ForecastCache forecastCache;
 
     @Mock
     private WebContext context;
@@ -61,9 +68,9 @@ class ForecastServletTest {
     public void setUp() throws Exception {
         forecastServlet = new ForecastServlet();
 
-        Field sessionDaoField = forecastServlet.getClass().getDeclaredField("sessionDao");
-        sessionDaoField.setAccessible(true);
-        sessionDaoField.set(forecastServlet, sessionDao);
+        Field sessionServiceField = forecastServlet.getClass().getDeclaredField("sessionService");
+        sessionServiceField.setAccessible(true);
+        sessionServiceField.set(forecastServlet, new SessionService(sessionDao, new SessionCache(10, Duration.ofMinutes(5))));
 
         Field locationDaoField = forecastServlet.getClass().getDeclaredField("locationDao");
         locationDaoField.setAccessible(true);
@@ -77,6 +84,10 @@ class ForecastServletTest {
         forecastServiceFiled.setAccessible(true);
         forecastServiceFiled.set(forecastServlet, forecastService);
 
+        Field forecastCacheField = forecastServlet.getClass().getDeclaredField("forecastCache");
+        forecastCacheField.setAccessible(true);
+        forecastCacheField.set(forecastServlet, forecastCache);
+
         Field contextField = forecastServlet.getClass().getSuperclass().getDeclaredField("context");
         contextField.set(forecastServlet, context);
 
@@ -210,4 +221,30 @@ class ForecastServletTest {
         verify(context, atMostOnce()).setVariable(eq("dailyForecast"), any(List.class));
         verify(templateEngine, atMostOnce()).process(eq("forecast"), eq(context), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void doGet_forecastIsCached_shouldRenderCachedDtosWithoutAggregation() throws Exception {
+        Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
+        User user = new User("login", "password");
+        Session session = new Session();
+        session.setUser(user);
+        session.setExpiresAt(LocalDateTime.MAX);
+        Location location = new Location();
+        location.setName("Location");
+        List<WeatherDto> hourlyForecast = List.of(new WeatherDto());
+        List<WeatherDto> dailyForecast = List.of(new WeatherDto());
+        when(request.getCookies()).thenReturn(new Cookie[]{cookie});
+        when(sessionDao.findById(any())).thenReturn(Optional.of(session));
+        when(request.getParameter(any())).thenReturn("1");
+        when(locationDao.findById(anyLong())).thenReturn(Optional.of(location));
+        when(forecastCache.get(location)).thenReturn(Optional.of(
+                new CachedForecast(new ForecastApiResponse(), hourlyForecast, dailyForecast)
+        ));
+
+        forecastServlet.doGet(request, response);
+
+        verifyNoInteractions(weatherApiService, forecastService);
+        verify(context).setVariable("hourlyForecast", hourlyForecast);
+        verify(context).setVariable("dailyForecast", dailyForecast);
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.thymeleaf.ITemplateEngine;
@@ -16,7 +17,6 @@ import pet.project.exception.CookieNotFoundException;
 import pet.project.exception.InvalidParameterException;
 import pet.project.exception.LocationNotFoundException;
 import pet.project.exception.SessionExpiredException;
-import pet.project.model.Location;
 import pet.project.model.Session;
 import pet.project.model.User;
 import pet.project.model.api.WeatherApiResponse;
@@ -24,18 +24,28 @@ import pet.project.model.api.entity.Clouds;
 import pet.project.model.api.entity.Main;
 import pet.project.model.api.entity.Weather;
 import pet.project.model.api.entity.Wind;
+import pet.project.model.dto.LocationDto;
+import pet.project.model.dto.WeatherDto;
+import pet.project.model.dto.enums.WeatherCondition;
+import pet.project.service.SessionService;
 import pet.project.service.WeatherApiService;
+import pet.project.service.cache.SessionCache;
+import pet.project.service.cache.TtlCache;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
-import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -59,14 +69,15 @@ class HomeServletTest {
     private HttpServletResponse response;
 
     private HomeServlet homeServlet;
+    private TtlCache<Long, List<LocationDto>> userLocationsCache;
 
     @BeforeEach
     public void setUp() throws Exception {
         homeServlet = new HomeServlet();
 
-        Field sessionDaoField = homeServlet.getClass().getDeclaredField("sessionDao");
-        sessionDaoField.setAccessible(true);
-        sessionDaoField.set(homeServlet, sessionDao);
+        Field sessionServiceField = homeServlet.getClass().getDeclaredField("sessionService");
+        sessionServiceField.setAccessible(true);
+        sessionServiceField.set(homeServlet, new SessionService(sessionDao, new SessionCache(10, Duration.ofMinutes(5))));
 
         Field locationDaoField = homeServlet.getClass().getDeclaredField("locationDao");
         locationDaoField.setAccessible(true);
@@ -76,6 +87,11 @@ class HomeServletTest {
         weatherApiField.setAccessible(true);
         weatherApiField.set(homeServlet, weatherApiService);
 
+        userLocationsCache = new TtlCache<>(10, Duration.ofMinutes(5));
+        Field userLocationsCacheField = homeServlet.getClass().getDeclaredField("userLocationsCache");
+        userLocationsCacheField.setAccessible(true);
+        userLocationsCacheField.set(homeServlet, userLocationsCache);
+
         Field contextField = homeServlet.getClass().getSuperclass().getDeclaredField("context");
         contextField.set(homeServlet, context);
 
@@ -123,7 +139,7 @@ class HomeServletTest {
         Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
         Session session = new Session();
         session.setExpiresAt(LocalDateTime.MAX);
-        session.setUser(new User("login", "password"));
+        session.setUser(new User(1L, "login", "password"));
         when(request.getCookies()).thenReturn(new Cookie[]{cookie});
         when(sessionDao.findById(any())).thenReturn(Optional.of(session));
 
@@ -139,13 +155,13 @@ class HomeServletTest {
         Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
         Session session = new Session();
         session.setExpiresAt(LocalDateTime.MAX);
-        session.setUser(new User("login", "password"));
+        session.setUser(new User(1L, "login", "password"));
         WeatherApiResponse apiResponse = mock(WeatherApiResponse.class);
         WeatherApiResponse.Sys sys = mock(WeatherApiResponse.Sys.class);
         when(request.getCookies()).thenReturn(new Cookie[]{cookie});
         when(sessionDao.findById(any())).thenReturn(Optional.of(session));
-        when(locationDao.findByUser(any())).thenReturn(List.of(new Location()));
-        when(weatherApiService.getWeatherForLocation(any())).thenReturn(apiResponse);
+        when(locationDao.findDtosByUserId(eq(1L))).thenReturn(List.of(new LocationDto(1L, "Location", 50.0, 50.0)));
+        when(weatherApiService.getWeatherForLocationAsync(any(LocationDto.class))).thenReturn(CompletableFuture.completedFuture(apiResponse));
         when(apiResponse.getWeatherList()).thenReturn(List.of(new Weather()));
         when(apiResponse.getMain()).thenReturn(new Main());
         when(apiResponse.getWind()).thenReturn(new Wind());
@@ -162,6 +178,91 @@ class HomeServletTest {
         verify(templateEngine, atMostOnce()).process(eq("home"), eq(context), any());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void doGet_weatherApiCallFailed_shouldKeepOrderAndProcessHomePage() throws Exception {
+        Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
+        Session session = new Session();
+        session.setExpiresAt(LocalDateTime.MAX);
+        session.setUser(new User(1L, "login", "password"));
+        LocationDto failedLocation = new LocationDto(1L, "Failed", 10.0, 10.0);
+        LocationDto pendingLocation = new LocationDto(2L, "Pending", 20.0, 20.0);
+        when(request.getCookies()).thenReturn(new Cookie[]{cookie});
+        when(sessionDao.findById(any())).thenReturn(Optional.of(session));
+        when(locationDao.findDtosByUserId(eq(1L))).thenReturn(List.of(failedLocation, pendingLocation));
+        when(weatherApiService.getWeatherForLocationAsync(eq(failedLocation))).thenReturn(CompletableFuture.failedFuture(new RuntimeException()));
+        when(weatherApiService.getWeatherForLocationAsync(eq(pendingLocation))).thenReturn(new CompletableFuture<>());
+        setWeatherCallTimeout(Duration.ofMillis(1));
+
+        homeServlet.doGet(request, response);
+
+        ArgumentCaptor<Map<LocationDto, WeatherDto>> mapCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(context).setVariable(eq("locationWeatherMap"), mapCaptor.capture());
+        assertEquals(List.of(failedLocation, pendingLocation), List.copyOf(mapCaptor.getValue().keySet()));
+        assertEquals(WeatherCondition.UNDEFINED, mapCaptor.getValue().get(pendingLocation).getWeatherCondition());
+        verify(templateEngine, atMostOnce()).process(eq("home"), eq(context), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void doGet_weatherApiCallThrows_shouldReleasePermitAndProcessHomePage() throws Exception {
+        Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
+        Session session = new Session();
+        session.setExpiresAt(LocalDateTime.MAX);
+        session.setUser(new User(1L, "login", "password"));
+        // More locations than permits, a leaked permit would block the page forever
+        List<LocationDto> locations = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            locations.add(new LocationDto(id, "Location " + id, (double) id, (double) id));
+        }
+        when(request.getCookies()).thenReturn(new Cookie[]{cookie});
+        when(sessionDao.findById(any())).thenReturn(Optional.of(session));
+        when(locationDao.findDtosByUserId(eq(1L))).thenReturn(locations);
+        when(weatherApiService.getWeatherForLocationAsync(any(LocationDto.class))).thenThrow(new IllegalStateException("rejected"));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> homeServlet.doGet(request, response));
+
+        ArgumentCaptor<Map<LocationDto, WeatherDto>> mapCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(context).setVariable(eq("locationWeatherMap"), mapCaptor.capture());
+        assertEquals(locations, List.copyOf(mapCaptor.getValue().keySet()));
+    }
+
+    @Test
+    public void doGet_locationsAreCached_shouldNotQueryDatabase() throws Exception {
+        Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
+        Session session = new Session();
+        session.setExpiresAt(LocalDateTime.MAX);
+        session.setUser(new User(1L, "login", "password"));
+        userLocationsCache.put(1L, List.of());
+        when(request.getCookies()).thenReturn(new Cookie[]{cookie});
+        when(sessionDao.findById(any())).thenReturn(Optional.of(session));
+
+        homeServlet.doGet(request, response);
+
+        verify(locationDao, never()).findDtosByUserId(any());
+        verify(templateEngine).process(eq("home"), eq(context), any());
+    }
+
+    @Test
+    public void doGet_locationsInvalidatedDuringRead_shouldNotCacheStaleLocations() throws Exception {
+        Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
+        Session session = new Session();
+        session.setExpiresAt(LocalDateTime.MAX);
+        session.setUser(new User(1L, "login", "password"));
+        when(request.getCookies()).thenReturn(new Cookie[]{cookie});
+        when(sessionDao.findById(any())).thenReturn(Optional.of(session));
+        // Subscription committed by another request after the read took its snapshot
+        when(locationDao.findDtosByUserId(eq(1L))).thenAnswer(invocation -> {
+            userLocationsCache.invalidate(1L);
+            return List.of();
+        });
+
+        homeServlet.doGet(request, response);
+
+        assertTrue(userLocationsCache.get(1L).isEmpty());
+        verify(templateEngine).process(eq("home"), eq(context), any());
+    }
+
     @Test
     public void doPost_emptyCookies_shouldThrowCookieNotFoundException() {
         when(request.getCookies()).thenReturn(new Cookie[]{});
@@ -245,15 +346,18 @@ class HomeServletTest {
     }
 
     @Test
-    public void doPost_locationIsNotFound_shouldThrowLocationNotFoundException() {
+    public void doPost_locationIsNotTracked_shouldThrowLocationNotFoundException() {
         Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
+        User user = new User();
+        user.setId(2L);
         Session session = new Session();
         session.setExpiresAt(LocalDateTime.MAX);
+        session.setUser(user);
         when(request.getCookies()).thenReturn(new Cookie[]{cookie});
         when(sessionDao.findById(any())).thenReturn(Optional.of(session));
         when(request.getParameter(any())).thenReturn("1");
+        when(locationDao.unsubscribe(eq(1L), eq(2L))).thenReturn(false);
 
-        verify(locationDao, atMostOnce()).findById(eq(1L));
         assertThrows(
                 LocationNotFoundException.class,
                 () -> homeServlet.doPost(request, response)
@@ -261,43 +365,31 @@ class HomeServletTest {
     }
 
     @Test
-    public void doPost_locationIsFound_shouldDeleteUserFromLocation() throws Exception {
+    public void doPost_locationIsTracked_shouldDeleteOnlySubscriptionOfUser() throws Exception {
         Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
-        User userToPersist = new User();
-        User userToDelete = new User();
+        User user = new User();
+        user.setId(2L);
         Session session = new Session();
         session.setExpiresAt(LocalDateTime.MAX);
-        session.setUser(userToDelete);
-        Location location = new Location();
-        location.setUsers(new ArrayList<>(asList(userToDelete, userToPersist)));
+        session.setUser(user);
         when(request.getCookies()).thenReturn(new Cookie[]{cookie});
         when(sessionDao.findById(any())).thenReturn(Optional.of(session));
         when(request.getParameter(any())).thenReturn("1");
-        when(locationDao.findById(eq(1L))).thenReturn(Optional.of(location));
+        when(locationDao.unsubscribe(eq(1L), eq(2L))).thenReturn(true);
+        userLocationsCache.put(2L, List.of(new LocationDto(1L, "Location", 50.0, 50.0)));
 
         homeServlet.doPost(request, response);
 
-        verify(locationDao, atMostOnce()).update(location);
-        assertEquals(List.of(userToPersist), location.getUsers());
+        verify(locationDao).unsubscribe(1L, 2L);
+        assertTrue(userLocationsCache.get(2L).isEmpty());
+        verify(locationDao, never()).findById(any());
+        verify(locationDao, never()).update(any());
+        verify(response).sendRedirect(request.getContextPath());
     }
 
-    @Test
-    public void doPost_deletingSuccessful_shouldRedirectToHomePage() throws Exception {
-        Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
-        User userToPersist = new User();
-        User userToDelete = new User();
-        Session session = new Session();
-        session.setExpiresAt(LocalDateTime.MAX);
-        session.setUser(userToDelete);
-        Location location = new Location();
-        location.setUsers(new ArrayList<>(asList(userToDelete, userToPersist)));
-        when(request.getCookies()).thenReturn(new Cookie[]{cookie});
-        when(sessionDao.findById(any())).thenReturn(Optional.of(session));
-        when(request.getParameter(any())).thenReturn("1");
-        when(locationDao.findById(eq(1L))).thenReturn(Optional.of(location));
-
-        homeServlet.doPost(request, response);
-
-        verify(response, atMostOnce()).sendRedirect(request.getContextPath());
+    private void setWeatherCallTimeout(Duration timeout) throws Exception {
+        Field weatherCallTimeoutField = homeServlet.getClass().getDeclaredField("weatherCallTimeout");
+        weatherCallTimeoutField.setAccessible(true);
+        weatherCallTimeoutField.set(homeServlet, timeout);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package pet.project.servlet;
+
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsServletTest {
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private ServletConfig servletConfig;
+    @Mock
+    private ServletContext servletContext;
+
+    private MetricsServlet metricsServlet;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        metricsServlet = new MetricsServlet();
+        setMetricsToken("secret-token");
+    }
+
+    @Test
+    public void doGet_tokenIsNotConfigured_shouldRespondForbidden() throws Exception {
+        setMetricsToken("");
+
+        metricsServlet.doGet(request, response);
+
+        verify(response).sendError(HttpServletResponse.SC_FORBIDDEN);
+        verify(response, never()).getWriter();
+    }
+
+    @Test
+    public void doGet_authorizationIsMissing_shouldRespondUnauthorized() throws Exception {
+        metricsServlet.doGet(request, response);
+
+        verify(response).setHeader("WWW-Authenticate", "Bearer");
+        verify(response).sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(response, never()).getWriter();
+    }
+
+    @Test
+    public void doGet_wrongToken_shouldRespondUnauthorized() throws Exception {
+        when(request.getHeader("Authorization")).thenReturn("Bearer secret-tokem");
+
+        metricsServlet.doGet(request, response);
+
+        verify(response).sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(response, never()).getWriter();
+    }
+
+    @Test
+    public void doGet_validToken_shouldWriteMetrics() throws Exception {
+        StringWriter body = new StringWriter();
+        when(request.getHeader("Authorization")).thenReturn("Bearer secret-token");
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+        when(servletConfig.getServletContext()).thenReturn(servletContext);
+        metricsServlet.init(servletConfig);
+
+        metricsServlet.doGet(request, response);
+
+        verify(response, never()).sendError(anyInt());
+        assertTrue(body.toString().contains("weather_tracker_cache_size{cache=\"weather\"}"));
+    }
+
+    private void setMetricsToken(String token) throws Exception {
+        Field metricsTokenField = metricsServlet.getClass().getDeclaredField("metricsToken");
+        metricsTokenField.setAccessible(true);
+        metricsTokenField.set(metricsServlet, token);
+    }
+}
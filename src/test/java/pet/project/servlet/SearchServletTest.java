@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.thymeleaf.ITemplateEngine;
@@ -21,11 +22,16 @@ import pet.project.model.Location;
 import pet.project.model.Session;
 import pet.project.model.User;
 import pet.project.model.api.LocationApiResponse;
+import pet.project.model.dto.LocationDto;
+import pet.project.service.SessionService;
 import pet.project.service.WeatherApiService;
+import pet.project.service.cache.SessionCache;
+import pet.project.service.cache.TtlCache;
+import pet.project.service.location.LocationIndex;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -43,6 +49,8 @@ class SearchServletTest {
     private LocationDao locationDao;
     @Mock
     private WeatherApiService weatherApiService;
+    @Mock
+    private LocationIndex locationIndex;
 
     @Mock
     private WebContext context;
@@ -60,9 +68,9 @@ class SearchServletTest {
     public void setUp() throws Exception {
         searchServlet = new SearchServlet();
 
-        Field sessionDaoField = searchServlet.getClass().getDeclaredField("sessionDao");
-        sessionDaoField.setAccessible(true);
-        sessionDaoField.set(searchServlet, sessionDao);
+        Field sessionServiceField = searchServlet.getClass().getDeclaredField("sessionService");
+        sessionServiceField.setAccessible(true);
+        sessionServiceField.set(searchServlet, new SessionService(sessionDao, new SessionCache(10, Duration.ofMinutes(5))));
 
         Field locationDaoField = searchServlet.getClass().getDeclaredField("locationDao");
         locationDaoField.setAccessible(true);
@@ -72,6 +80,14 @@ class SearchServletTest {
         weatherApiField.setAccessible(true);
         weatherApiField.set(searchServlet, weatherApiService);
 
+        Field userLocationsCacheField = searchServlet.getClass().getDeclaredField("userLocationsCache");
+        userLocationsCacheField.setAccessible(true);
+        userLocationsCacheField.set(searchServlet, new TtlCache<Long, List<LocationDto>>(10, Duration.ofMinutes(5)));
+
+        Field locationIndexField = searchServlet.getClass().getDeclaredField("locationIndex");
+        locationIndexField.setAccessible(true);
+        locationIndexField.set(searchServlet, locationIndex);
+
         Field contextField = searchServlet.getClass().getSuperclass().getDeclaredField("context");
         contextField.set(searchServlet, context);
 
@@ -378,15 +394,37 @@ class SearchServletTest {
     }
 
     @Test
-    public void doPost_locationIsFound_shouldAddUserToLocation() throws Exception {
+    public void doPost_nearbyLocationIsIndexed_shouldSubscribeUserWithoutDatabaseLookup() throws Exception {
+        Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
+        User user = new User();
+        user.setId(2L);
+        Session session = new Session();
+        session.setExpiresAt(LocalDateTime.MAX);
+        session.setUser(user);
+        when(request.getCookies()).thenReturn(new Cookie[]{cookie});
+        when(sessionDao.findById(any())).thenReturn(Optional.of(session));
+        when(request.getParameter("name")).thenReturn("Location");
+        when(request.getParameter("longitude")).thenReturn("50.00001");
+        when(request.getParameter("latitude")).thenReturn("50.00001");
+        when(locationIndex.findNearest(50.00001, 50.00001)).thenReturn(Optional.of(new LocationDto(1L, "Location", 50.0, 50.0)));
+
+        searchServlet.doPost(request, response);
+
+        verify(locationDao).subscribe(1L, 2L);
+        verify(locationDao, never()).findByCoordinates(any(), any());
+        verify(locationDao, never()).save(any());
+    }
+
+    @Test
+    public void doPost_locationIsFound_shouldSubscribeUserToLocation() throws Exception {
         Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
-        User newUser = new User();
-        User oldUser = new User();
+        User user = new User();
+        user.setId(2L);
         Session session = new Session();
         session.setExpiresAt(LocalDateTime.MAX);
-        session.setUser(newUser);
+        session.setUser(user);
         Location location = new Location();
-        location.setUsers(new ArrayList<>(List.of(oldUser)));
+        location.setId(1L);
         when(request.getCookies()).thenReturn(new Cookie[]{cookie});
         when(sessionDao.findById(any())).thenReturn(Optional.of(session));
         when(request.getParameter("name")).thenReturn("Location");
@@ -396,15 +434,46 @@ class SearchServletTest {
 
         searchServlet.doPost(request, response);
 
-        verify(locationDao, atMostOnce()).update(location);
-        assertEquals(List.of(oldUser, newUser), location.getUsers());
+        verify(locationDao).subscribe(1L, 2L);
+        verify(locationDao, never()).update(any());
+        verify(locationIndex).add(LocationDto.of(location));
         verify(response, atMostOnce()).sendRedirect(anyString());
     }
 
+    @Test
+    public void doPost_locationNotIndexedButStored_shouldSubscribeThenAddToIndex() throws Exception {
+        Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
+        User user = new User();
+        user.setId(2L);
+        Session session = new Session();
+        session.setExpiresAt(LocalDateTime.MAX);
+        session.setUser(user);
+        Location location = new Location("Location", List.of(), 50.0, 50.0);
+        location.setId(1L);
+        when(request.getCookies()).thenReturn(new Cookie[]{cookie});
+        when(sessionDao.findById(any())).thenReturn(Optional.of(session));
+        when(request.getParameter("name")).thenReturn("Location");
+        when(request.getParameter("longitude")).thenReturn("50");
+        when(request.getParameter("latitude")).thenReturn("50");
+        // Created by another instance, so only the exact database match finds it
+        when(locationIndex.findNearest(50.0, 50.0)).thenReturn(Optional.empty());
+        when(locationDao.findByCoordinates(50.0, 50.0)).thenReturn(Optional.of(location));
+
+        searchServlet.doPost(request, response);
+
+        InOrder inOrder = inOrder(locationIndex, locationDao);
+        inOrder.verify(locationIndex).findNearest(50.0, 50.0);
+        inOrder.verify(locationDao).findByCoordinates(50.0, 50.0);
+        inOrder.verify(locationDao).subscribe(1L, 2L);
+        inOrder.verify(locationIndex).add(LocationDto.of(location));
+        verify(locationDao, never()).save(any());
+    }
+
     @Test
     public void doPost_locationIsNotFound_shouldCreateLocation() throws Exception {
         Cookie cookie = new Cookie("sessionId", UUID.randomUUID().toString());
         User user = new User();
+        user.setId(2L);
         Session session = new Session();
         session.setExpiresAt(LocalDateTime.MAX);
         session.setUser(user);
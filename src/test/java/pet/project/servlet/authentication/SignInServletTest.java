@@ -20,8 +20,11 @@ import pet.project.exception.authentication.UserNotFoundException;
 import pet.project.exception.authentication.WrongPasswordException;
 import pet.project.model.Session;
 import pet.project.model.User;
+import pet.project.service.SessionService;
+import pet.project.service.cache.SessionCache;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -51,9 +54,9 @@ class SignInServletTest {
     public void setUp() throws Exception {
         signInServlet = new SignInServlet();
 
-        Field sessionDaoField = signInServlet.getClass().getDeclaredField("sessionDao");
-        sessionDaoField.setAccessible(true);
-        sessionDaoField.set(signInServlet, sessionDao);
+        Field sessionServiceField = signInServlet.getClass().getDeclaredField("sessionService");
+        sessionServiceField.setAccessible(true);
+        sessionServiceField.set(signInServlet, new SessionService(sessionDao, new SessionCache(10, Duration.ofMinutes(5))));
 
         Field locationDaoField = signInServlet.getClass().getDeclaredField("userDao");
         locationDaoField.setAccessible(true);
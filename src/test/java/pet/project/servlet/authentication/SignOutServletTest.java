@@ -14,8 +14,11 @@ import pet.project.dao.SessionDao;
 import pet.project.exception.CookieNotFoundException;
 import pet.project.exception.SessionExpiredException;
 import pet.project.model.Session;
+import pet.project.service.SessionService;
+import pet.project.service.cache.SessionCache;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
@@ -44,9 +47,9 @@ class SignOutServletTest {
     public void setUp() throws Exception {
         signOutServlet = new SignOutServlet();
 
-        Field sessionDaoField = signOutServlet.getClass().getDeclaredField("sessionDao");
-        sessionDaoField.setAccessible(true);
-        sessionDaoField.set(signOutServlet, sessionDao);
+        Field sessionServiceField = signOutServlet.getClass().getDeclaredField("sessionService");
+        sessionServiceField.setAccessible(true);
+        sessionServiceField.set(signOutServlet, new SessionService(sessionDao, new SessionCache(10, Duration.ofMinutes(5))));
 
         Field templateField = signOutServlet.getClass().getSuperclass().getDeclaredField("templateEngine");
         templateField.setAccessible(true);
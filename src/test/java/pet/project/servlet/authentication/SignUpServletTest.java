@@ -18,8 +18,11 @@ import pet.project.dao.UserDao;
 import pet.project.exception.InvalidParameterException;
 import pet.project.model.Session;
 import pet.project.model.User;
+import pet.project.service.SessionService;
+import pet.project.service.cache.SessionCache;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -49,9 +52,9 @@ class SignUpServletTest {
     public void setUp() throws Exception {
         signUpServlet = new SignUpServlet();
 
-        Field sessionDaoField = signUpServlet.getClass().getDeclaredField("sessionDao");
-        sessionDaoField.setAccessible(true);
-        sessionDaoField.set(signUpServlet, sessionDao);
+        Field sessionServiceField = signUpServlet.getClass().getDeclaredField("sessionService");
+        sessionServiceField.setAccessible(true);
+        sessionServiceField.set(signUpServlet, new SessionService(sessionDao, new SessionCache(10, Duration.ofMinutes(5))));
 
         Field locationDaoField = signUpServlet.getClass().getDeclaredField("userDao");
         locationDaoField.setAccessible(true);
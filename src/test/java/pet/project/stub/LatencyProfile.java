@@ -0,0 +1,51 @@
+package pet.project.stub;
+
+import java.util.Random;
+
+// Parsed from "none", "fixed:<ms>", "uniform:<min ms>:<max ms>" or "lognormal:<median ms>:<sigma>"
+public class LatencyProfile {
+    private final String type;
+    private final double first;
+    private final double second;
+
+    private LatencyProfile(String type, double first, double second) {
+        this.type = type;
+        this.first = first;
+        this.second = second;
+    }
+
+    public static LatencyProfile parse(String profile) {
+        String[] parts = profile.split(":");
+
+        switch (parts[0]) {
+            case "none":
+                return new LatencyProfile("none", 0, 0);
+            case "fixed":
+                return new LatencyProfile("fixed", Double.parseDouble(parts[1]), 0);
+            case "uniform":
+            case "lognormal":
+                return new LatencyProfile(parts[0], Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            default:
+                throw new IllegalArgumentException("Unknown latency profile: " + profile);
+        }
+    }
+
+    public long nextDelayMillis(Random random) {
+        switch (type) {
+            case "fixed":
+                return (long) first;
+            case "uniform":
+                return (long) (first + random.nextDouble() * (second - first));
+            case "lognormal":
+                // Long tail around the median, like real network latency
+                return (long) (first * Math.exp(second * random.nextGaussian()));
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type + (type.equals("none") ? "" : ":" + first + (type.equals("fixed") ? "" : ":" + second));
+    }
+}
@@ -0,0 +1,274 @@
+package pet.project.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+// Local stand-in for the openweather endpoints used by the application. Start it and point the
+// application to it with OPENWEATHER_BASE_URL=http://localhost:<port>
+//
+//   mvn -P openweather-stub test-compile exec:java -Dstub.latency=lognormal:120:0.6 -Dstub.errorRate=0.02
+//
+// stub.port            port to listen on, 8089 by default
+// stub.payloads        "recorded" serves the payloads as is, "synthetic" moves timestamps to the current time
+//                      and builds locations from the query
+// stub.latency         latency profile, see LatencyProfile
+// stub.errorRate       share of the calls answered with 500
+// stub.callsPerMinute  calls above this rate are answered with 429, 0 disables throttling
+// stub.threads         number of threads serving the calls
+public class OpenWeatherStubServer {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Duration FORECAST_STEP = Duration.ofHours(3);
+
+    private final boolean isSynthetic;
+    private final LatencyProfile latencyProfile;
+    private final double errorRate;
+    private final int callsPerMinute;
+
+    private final JsonNode weatherPayload;
+    private final JsonNode forecastPayload;
+    private final JsonNode geocodingPayload;
+
+    private long throttleWindowStartMillis;
+    private int throttleWindowCalls;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public OpenWeatherStubServer(boolean isSynthetic, LatencyProfile latencyProfile, double errorRate, int callsPerMinute) throws IOException {
+        this.isSynthetic = isSynthetic;
+        this.latencyProfile = latencyProfile;
+        this.errorRate = errorRate;
+        this.callsPerMinute = callsPerMinute;
+
+        this.weatherPayload = loadPayload("weather.json");
+        this.forecastPayload = loadPayload("forecast.json");
+        this.geocodingPayload = loadPayload("geocoding.json");
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger("stub.port", 8089);
+        int threads = Integer.getInteger("stub.threads", 64);
+
+        OpenWeatherStubServer stubServer = new OpenWeatherStubServer(
+                System.getProperty("stub.payloads", "synthetic").equals("synthetic"),
+                LatencyProfile.parse(System.getProperty("stub.latency", "none")),
+                Double.parseDouble(System.getProperty("stub.errorRate", "0")),
+                Integer.getInteger("stub.callsPerMinute", 0)
+        );
+        stubServer.start(port, threads);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(stubServer::stop));
+    }
+
+    public void start(int port, int threads) throws IOException {
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+
+        server.createContext("/data/2.5/weather", exchange -> handle(exchange, this::buildWeather));
+        server.createContext("/data/2.5/forecast", exchange -> handle(exchange, this::buildForecast));
+        server.createContext("/geo/1.0/direct", exchange -> handle(exchange, this::buildLocations));
+        server.start();
+
+        System.out.println("OpenWeather stub is listening on http://localhost:" + server.getAddress().getPort()
+                + " payloads=" + (isSynthetic ? "synthetic" : "recorded")
+                + " latency=" + latencyProfile
+                + " errorRate=" + errorRate
+                + " callsPerMinute=" + callsPerMinute);
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, PayloadBuilder payloadBuilder) throws IOException {
+        try {
+            Random random = ThreadLocalRandom.current();
+            sleep(latencyProfile.nextDelayMillis(random));
+
+            if (isThrottled()) {
+                send(exchange, 429, "{\"cod\":429,\"message\":\"Your account is temporary blocked due to exceeding of requests limitation\"}");
+                return;
+            }
+            if (random.nextDouble() < errorRate) {
+                send(exchange, 500, "{\"cod\":500,\"message\":\"Internal error\"}");
+                return;
+            }
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            send(exchange, 200, OBJECT_MAPPER.writeValueAsString(payloadBuilder.build(query)));
+
+        } catch (RuntimeException e) {
+            send(exchange, 400, "{\"cod\":400,\"message\":\"Bad request\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private synchronized boolean isThrottled() {
+        if (callsPerMinute <= 0) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - throttleWindowStartMillis >= Duration.ofMinutes(1).toMillis()) {
+            throttleWindowStartMillis = now;
+            throttleWindowCalls = 0;
+        }
+
+        return ++throttleWindowCalls > callsPerMinute;
+    }
+
+    private JsonNode buildWeather(Map<String, String> query) {
+        if (!isSynthetic) {
+            return weatherPayload;
+        }
+
+        ObjectNode weather = weatherPayload.deepCopy();
+        weather.put("dt", Instant.now().getEpochSecond());
+
+        ObjectNode coordinates = (ObjectNode) weather.get("coord");
+        coordinates.put("lat", Double.parseDouble(query.get("lat")));
+        coordinates.put("lon", Double.parseDouble(query.get("lon")));
+
+        return weather;
+    }
+
+    private JsonNode buildForecast(Map<String, String> query) {
+        if (!isSynthetic) {
+            return forecastPayload;
+        }
+
+        ObjectNode forecast = forecastPayload.deepCopy();
+        ArrayNode forecasts = (ArrayNode) forecast.get("list");
+
+        // First slot is the next 3-hour boundary, like in the real api
+        long stepSeconds = FORECAST_STEP.getSeconds();
+        long firstSlot = (Instant.now().getEpochSecond() / stepSeconds + 1) * stepSeconds;
+        long shift = firstSlot - forecasts.get(0).get("dt").asLong();
+
+        for (JsonNode hourlyForecast : forecasts) {
+            ((ObjectNode) hourlyForecast).put("dt", hourlyForecast.get("dt").asLong() + shift);
+        }
+
+        return forecast;
+    }
+
+    private JsonNode buildLocations(Map<String, String> query) {
+        if (!isSynthetic) {
+            return geocodingPayload;
+        }
+
+        String name = query.get("q");
+        int limit = Integer.parseInt(query.getOrDefault("limit", "1"));
+
+        // Same query always gives the same coordinates
+        Random random = new Random(name.hashCode());
+        ArrayNode locations = OBJECT_MAPPER.createArrayNode();
+
+        for (int i = 0; i < limit; i++) {
+            ObjectNode location = locations.addObject();
+            location.put("name", name);
+            location.put("lat", Math.round((random.nextDouble() * 180 - 90) * 10_000_000) / 10_000_000.0);
+            location.put("lon", Math.round((random.nextDouble() * 360 - 180) * 10_000_000) / 10_000_000.0);
+            location.put("country", "XX");
+        }
+
+        return locations;
+    }
+
+    private static void send(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            bytes = gzip(bytes);
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+
+        if (rawQuery == null) {
+            return query;
+        }
+
+        for (String parameter : rawQuery.split("&")) {
+            String[] keyValue = parameter.split("=", 2);
+            query.put(
+                    URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8),
+                    keyValue.length > 1 ? URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8) : ""
+            );
+        }
+
+        return query;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static JsonNode loadPayload(String fileName) throws IOException {
+        try (InputStream inputStream = OpenWeatherStubServer.class.getResourceAsStream("/openweather/" + fileName)) {
+            if (inputStream == null) {
+                throw new IOException("Recorded payload is not found: " + fileName);
+            }
+            return OBJECT_MAPPER.readTree(inputStream);
+        }
+    }
+
+    private interface PayloadBuilder {
+        JsonNode build(Map<String, String> query);
+    }
+}
@@ -0,0 +1,97 @@
+package pet.project.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersistenceUtilTest {
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private EntityTransaction transaction;
+
+    @AfterEach
+    public void tearDown() {
+        PersistenceUtil.endUnitOfWork();
+    }
+
+    @Test
+    public void getEntityManager_outsideUnitOfWork_shouldThrowIllegalStateException() {
+        assertThrows(IllegalStateException.class, PersistenceUtil::getEntityManager);
+    }
+
+    @Test
+    public void beginUnitOfWork_nested_shouldShareEntityManagerOfOuterUnit() {
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        assertTrue(PersistenceUtil.beginUnitOfWork(() -> entityManager));
+
+        EntityManager nestedEntityManager = PersistenceUtil.inUnitOfWork(PersistenceUtil::getEntityManager);
+
+        assertSame(entityManager, nestedEntityManager);
+        assertFalse(PersistenceUtil.beginUnitOfWork(() -> mock(EntityManager.class)));
+        assertSame(entityManager, PersistenceUtil.getEntityManager());
+        verify(entityManager, never()).close();
+
+        PersistenceUtil.endUnitOfWork();
+
+        verify(entityManager).close();
+    }
+
+    @Test
+    public void endUnitOfWork_outerUnit_shouldCloseEntityManagerAndLeaveThreadClean() {
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        PersistenceUtil.beginUnitOfWork(() -> entityManager);
+        PersistenceUtil.getEntityManager();
+
+        PersistenceUtil.endUnitOfWork();
+
+        verify(transaction, never()).rollback();
+        verify(entityManager).close();
+        assertThrows(IllegalStateException.class, PersistenceUtil::getEntityManager);
+    }
+
+    @Test
+    public void endUnitOfWork_activeTransaction_shouldRollBackBeforeClose() {
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        when(transaction.isActive()).thenReturn(true);
+        PersistenceUtil.beginUnitOfWork(() -> entityManager);
+        PersistenceUtil.getEntityManager();
+
+        PersistenceUtil.endUnitOfWork();
+
+        verify(transaction).rollback();
+        verify(entityManager).close();
+    }
+
+    @Test
+    public void endUnitOfWork_entityManagerNotUsed_shouldNotOpenOne() {
+        AtomicInteger openedCount = new AtomicInteger();
+        PersistenceUtil.beginUnitOfWork(() -> {
+            openedCount.incrementAndGet();
+            return entityManager;
+        });
+
+        PersistenceUtil.endUnitOfWork();
+
+        assertEquals(0, openedCount.get());
+    }
+
+    @Test
+    public void inUnitOfWork_workThrows_shouldEndUnitOfWork() {
+        assertThrows(RuntimeException.class, () -> PersistenceUtil.inUnitOfWork(() -> {
+            throw new RuntimeException("failed");
+        }));
+
+        assertThrows(IllegalStateException.class, PersistenceUtil::getEntityManager);
+    }
+}
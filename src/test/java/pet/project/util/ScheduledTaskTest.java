@@ -0,0 +1,76 @@
+package pet.project.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduledTaskTest {
+    private ScheduledTask scheduledTask;
+
+    @AfterEach
+    public void tearDown() {
+        if (scheduledTask != null) {
+            scheduledTask.stop();
+        }
+    }
+
+    @Test
+    public void start_runFails_shouldCountFailureAndKeepRunning() throws Exception {
+        AtomicInteger runCount = new AtomicInteger();
+        CountDownLatch isRunAgain = new CountDownLatch(1);
+        scheduledTask = new ScheduledTask("test-task", () -> {
+            if (runCount.incrementAndGet() == 1) {
+                throw new IllegalStateException("First run fails");
+            }
+            isRunAgain.countDown();
+        });
+
+        scheduledTask.start(Duration.ZERO, Duration.ofMillis(1));
+
+        assertTrue(isRunAgain.await(5, TimeUnit.SECONDS));
+        assertEquals(1, scheduledTask.getFailedRunCount());
+    }
+
+    @Test
+    public void stop_runInProgress_shouldLetItFinishAndDropNextRun() throws Exception {
+        AtomicInteger runCount = new AtomicInteger();
+        CountDownLatch isRunning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduledTask = new ScheduledTask("test-task", () -> {
+            runCount.incrementAndGet();
+            isRunning.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("Run is interrupted");
+            }
+        });
+        scheduledTask.start(Duration.ZERO, Duration.ZERO);
+        assertTrue(isRunning.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> stop = CompletableFuture.runAsync(scheduledTask::stop);
+        while (scheduledTask.isStarted()) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        stop.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, runCount.get());
+        assertEquals(0, scheduledTask.getFailedRunCount());
+    }
+
+    @Test
+    public void start_alreadyStarted_shouldThrowIllegalStateException() {
+        scheduledTask = new ScheduledTask("test-task", () -> {});
+        scheduledTask.start(Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class, () -> scheduledTask.start(Duration.ZERO, Duration.ZERO));
+    }
+}